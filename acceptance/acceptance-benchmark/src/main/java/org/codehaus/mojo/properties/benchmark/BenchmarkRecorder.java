@@ -0,0 +1,95 @@
+package org.codehaus.mojo.properties.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Properties;
+
+/**
+ * Build extension of the generated reactor: appends the wall-clock time and peak heap of the whole build to
+ * <code>benchmark-results.csv</code>, next to the root POM, together with the plugin version and module count, so
+ * the builds of successive releases can be compared.
+ */
+public class BenchmarkRecorder
+        extends AbstractMavenLifecycleParticipant {
+
+    static final String RESULTS_FILE = "benchmark-results.csv";
+
+    private static final String HEADER = "date,pluginVersion,modules,configurationBytes,wallClockMs,peakHeapMb";
+
+    /**
+     * Extensions declared in the POM are only loaded with the projects, too late to be told that the session started,
+     * so the peak heap is measured from here and the wall-clock time from the start of the request.
+     */
+    public void afterProjectsRead(final MavenSession session) {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    public void afterSessionEnd(final MavenSession session) {
+        final long wallClock = System.currentTimeMillis() - session.getRequest().getStartTime().getTime();
+
+        long peakHeap = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        final Properties properties = session.getTopLevelProject().getProperties();
+        final String configuration = properties.getProperty("benchmark.configuration", "");
+        final File results = new File(session.getExecutionRootDirectory(), RESULTS_FILE);
+        try {
+            final boolean created = !results.exists();
+            final Writer out = new OutputStreamWriter(new FileOutputStream(results, true), "UTF-8");
+            try {
+                if (created) {
+                    out.write(HEADER + "\n");
+                }
+                out.write(String.format("%s,%s,%d,%d,%d,%d%n",
+                        new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date()),
+                        properties.getProperty("benchmark.pluginVersion", "unknown"),
+                        session.getProjects().size(),
+                        new File(configuration).length(),
+                        wallClock,
+                        peakHeap / (1024 * 1024)));
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot record the benchmark results in " + results + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.codehaus.mojo.properties.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Writes realistic large inputs for the plugin: a deep and wide YAML file with cross references, its flat
+ * <code>.properties</code> twin, long placeholder chains, wide lists and a multi-document file. The output only
+ * depends on the arguments, so measurements of different releases run against the same data.
+ * <p>
+ * Arguments: output directory, then optionally keys (1000000), depth (30), chain length (1000), list width (10000)
+ * and documents (10).
+ */
+public class LargeConfigGenerator {
+
+    private static final int GROUPS_PER_SECTION = 10;
+
+    private static final int KEYS_PER_GROUP = 100;
+
+    private static final int REFERENCE_EVERY = 10;
+
+    private final int keys;
+
+    private final int depth;
+
+    private final int chainLength;
+
+    private final int listWidth;
+
+    private final int documents;
+
+    private final Random random = new Random(42);
+
+    public LargeConfigGenerator(final int keys, final int depth, final int chainLength, final int listWidth,
+                                final int documents) {
+        this.keys = keys;
+        this.depth = depth;
+        this.chainLength = chainLength;
+        this.listWidth = listWidth;
+        this.documents = documents;
+    }
+
+    public static void main(final String[] args)
+            throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LargeConfigGenerator <output directory> [keys] [depth] [chain length] "
+                    + "[list width] [documents]");
+            System.exit(1);
+        }
+
+        final LargeConfigGenerator generator = new LargeConfigGenerator(
+                intArgument(args, 1, 1000000),
+                intArgument(args, 2, 30),
+                intArgument(args, 3, 1000),
+                intArgument(args, 4, 10000),
+                intArgument(args, 5, 10));
+        generator.generate(new File(args[0]));
+    }
+
+    /**
+     * @param directory where the files are written, created when missing
+     * @throws IOException when a file cannot be written
+     */
+    public void generate(final File directory)
+            throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        writeLarge(new File(directory, "large.yml"), false);
+        writeLarge(new File(directory, "large.properties"), true);
+        writeChains(new File(directory, "chains.yml"));
+        writeWideLists(new File(directory, "wide-lists.yml"));
+        writeMultiDocument(new File(directory, "multi-document.yml"));
+    }
+
+    /**
+     * Sections of groups of keys, every tenth value referencing a key of the previous group, followed by a single
+     * branch nested <code>depth</code> levels deep.
+     */
+    private void writeLarge(final File file, final boolean flat)
+            throws IOException {
+        final Writer out = open(file);
+        try {
+            final int keysPerSection = GROUPS_PER_SECTION * KEYS_PER_GROUP;
+            int written = 0;
+            for (int section = 0; written < keys; section++) {
+                if (!flat) {
+                    out.write("section" + section + ":\n");
+                }
+                for (int group = 0; group < GROUPS_PER_SECTION && written < keys; group++) {
+                    if (!flat) {
+                        out.write("  group" + group + ":\n");
+                    }
+                    for (int key = 0; key < KEYS_PER_GROUP && written < keys; key++, written++) {
+                        final String value;
+                        if (written >= keysPerSection && key % REFERENCE_EVERY == 0) {
+                            value = "${section" + (section - 1) + ".group" + group + ".key" + key + "}/" + key;
+                        } else {
+                            value = randomValue();
+                        }
+
+                        if (flat) {
+                            out.write("section" + section + ".group" + group + ".key" + key + "=" + value + "\n");
+                        } else {
+                            out.write("    key" + key + ": \"" + value + "\"\n");
+                        }
+                    }
+                }
+            }
+
+            final StringBuilder path = new StringBuilder("deep");
+            if (!flat) {
+                out.write("deep:\n");
+            }
+            for (int level = 1; level < depth; level++) {
+                path.append(".level").append(level);
+                if (!flat) {
+                    out.write(indent(level) + "level" + level + ":\n");
+                }
+            }
+            if (flat) {
+                out.write(path + ".leaf=bottom\n");
+            } else {
+                out.write(indent(depth) + "leaf: bottom\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Each value references the previous one, so resolving the last key expands the whole chain.
+     */
+    private void writeChains(final File file)
+            throws IOException {
+        final Writer out = open(file);
+        try {
+            out.write("chain:\n");
+            out.write("  link0: start\n");
+            for (int link = 1; link < chainLength; link++) {
+                out.write("  link" + link + ": \"${chain.link" + (link - 1) + "}.\"\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeWideLists(final File file)
+            throws IOException {
+        final Writer out = open(file);
+        try {
+            for (int list = 0; list < 10; list++) {
+                out.write("list" + list + ":\n");
+                for (int element = 0; element < listWidth; element++) {
+                    out.write("  - " + randomValue() + "\n");
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeMultiDocument(final File file)
+            throws IOException {
+        final Writer out = open(file);
+        try {
+            for (int document = 0; document < documents; document++) {
+                out.write("---\n");
+                out.write("document" + document + ":\n");
+                for (int key = 0; key < KEYS_PER_GROUP; key++) {
+                    out.write("  key" + key + ": " + randomValue() + "\n");
+                }
+                out.write("...\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private String randomValue() {
+        final char[] chars = new char[8 + random.nextInt(24)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static String indent(final int level) {
+        final StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            indent.append("  ");
+        }
+        return indent.toString();
+    }
+
+    private static Writer open(final File file)
+            throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 1 << 16);
+    }
+
+    static int intArgument(final String[] args, final int index, final int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
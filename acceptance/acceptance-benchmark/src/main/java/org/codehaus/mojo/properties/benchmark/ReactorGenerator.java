@@ -0,0 +1,152 @@
+package org.codehaus.mojo.properties.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes a reactor of many modules, each reading the same configuration with the plugin and writing its properties
+ * back. The root POM registers {@link BenchmarkRecorder} as a build extension, so every build of the reactor records
+ * its wall-clock time and peak heap.
+ * <p>
+ * Arguments: output directory, number of modules, plugin version and configuration file.
+ */
+public class ReactorGenerator {
+
+    private static final String BENCHMARK_VERSION = "1.0-alpha-3-SNAPSHOT";
+
+    public static void main(final String[] args)
+            throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: ReactorGenerator <output directory> <modules> <plugin version> "
+                    + "<configuration file>");
+            System.exit(1);
+        }
+
+        generate(new File(args[0]), Integer.parseInt(args[1]), args[2], new File(args[3]).getAbsoluteFile());
+    }
+
+    /**
+     * @param directory     where the reactor is written
+     * @param modules       the number of modules
+     * @param pluginVersion the version of the plugin being measured
+     * @param configuration the file every module reads
+     * @throws IOException when a file cannot be written
+     */
+    public static void generate(final File directory, final int modules, final String pluginVersion,
+                                final File configuration)
+            throws IOException {
+        final StringBuilder moduleList = new StringBuilder();
+        for (int module = 0; module < modules; module++) {
+            final String name = moduleName(module);
+            moduleList.append("        <module>").append(name).append("</module>\n");
+            write(new File(new File(directory, name), "pom.xml"), ""
+                    + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "    <modelVersion>4.0.0</modelVersion>\n"
+                    + "    <parent>\n"
+                    + "        <groupId>org.codehaus.mojo.properties.benchmark</groupId>\n"
+                    + "        <artifactId>reactor</artifactId>\n"
+                    + "        <version>1.0</version>\n"
+                    + "    </parent>\n"
+                    + "    <artifactId>" + name + "</artifactId>\n"
+                    + "    <packaging>pom</packaging>\n"
+                    + "</project>\n");
+        }
+
+        write(new File(directory, "pom.xml"), ""
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>org.codehaus.mojo.properties.benchmark</groupId>\n"
+                + "    <artifactId>reactor</artifactId>\n"
+                + "    <version>1.0</version>\n"
+                + "    <packaging>pom</packaging>\n"
+                + "    <properties>\n"
+                + "        <benchmark.pluginVersion>" + pluginVersion + "</benchmark.pluginVersion>\n"
+                + "        <benchmark.configuration>" + configuration.getPath() + "</benchmark.configuration>\n"
+                + "    </properties>\n"
+                + "    <modules>\n"
+                + moduleList
+                + "    </modules>\n"
+                + "    <build>\n"
+                + "        <extensions>\n"
+                + "            <extension>\n"
+                + "                <groupId>org.codehaus.mojo</groupId>\n"
+                + "                <artifactId>properties-maven-plugin-acceptance-benchmark</artifactId>\n"
+                + "                <version>" + BENCHMARK_VERSION + "</version>\n"
+                + "            </extension>\n"
+                + "        </extensions>\n"
+                + "        <plugins>\n"
+                + "            <plugin>\n"
+                + "                <groupId>it.ozimov</groupId>\n"
+                + "                <artifactId>yaml-properties-maven-plugin</artifactId>\n"
+                + "                <version>" + pluginVersion + "</version>\n"
+                + "                <executions>\n"
+                + "                    <execution>\n"
+                + "                        <id>read</id>\n"
+                + "                        <phase>initialize</phase>\n"
+                + "                        <goals>\n"
+                + "                            <goal>read-project-properties</goal>\n"
+                + "                        </goals>\n"
+                + "                        <configuration>\n"
+                + "                            <files>\n"
+                + "                                <file>${benchmark.configuration}</file>\n"
+                + "                            </files>\n"
+                + "                        </configuration>\n"
+                + "                    </execution>\n"
+                + "                    <execution>\n"
+                + "                        <id>write</id>\n"
+                + "                        <phase>initialize</phase>\n"
+                + "                        <goals>\n"
+                + "                            <goal>write-project-properties</goal>\n"
+                + "                        </goals>\n"
+                + "                        <configuration>\n"
+                + "                            <outputFile>${project.build.directory}/benchmark.properties"
+                + "</outputFile>\n"
+                + "                        </configuration>\n"
+                + "                    </execution>\n"
+                + "                </executions>\n"
+                + "            </plugin>\n"
+                + "        </plugins>\n"
+                + "    </build>\n"
+                + "</project>\n");
+    }
+
+    private static String moduleName(final int module) {
+        return String.format("module-%04d", module);
+    }
+
+    private static void write(final File file, final String content)
+            throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + file.getParentFile());
+        }
+
+        final Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -45,6 +45,18 @@ class CircularDefinitionPreventer {
         return this;
     }
 
+    /**
+     * Removes the last visited property from the chain, once its value is fully expanded.
+     *
+     * @return {@link CircularDefinitionPreventer}
+     */
+    public CircularDefinitionPreventer left() {
+        VisitedProperty visited = entriesVisited.remove(entriesVisited.size() - 1);
+        keysUsed.remove(visited.key);
+
+        return this;
+    }
+
     private void circularDefinition() {
         StringBuilder buffer = new StringBuilder("Circular property definition: ");
         for (Iterator<?> iterator = entriesVisited.iterator(); iterator.hasNext(); ) {
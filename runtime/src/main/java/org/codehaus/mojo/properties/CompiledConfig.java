@@ -0,0 +1,107 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Resolved properties of a list of files, as returned by {@link ConfigLoader}. Immutable and thread safe; the values
+ * are kept as UTF-8 bytes and only decoded when asked for.
+ */
+public final class CompiledConfig {
+
+    private final List<File> files;
+
+    /**
+     * Modification time and length of each file when it was read.
+     */
+    private final long[] stamps;
+
+    private final PropertyTable table;
+
+    CompiledConfig(final List<File> files, final long[] stamps, final PropertyTable table) {
+        this.files = files;
+        this.stamps = stamps;
+        this.table = table;
+    }
+
+    /**
+     * @param key the property key
+     * @return the resolved value, <code>null</code> when no file defines the key
+     */
+    public String get(final String key) {
+        return table.get(key);
+    }
+
+    /**
+     * @param key          the property key
+     * @param defaultValue the value returned when no file defines the key
+     * @return the resolved value, or the default one
+     */
+    public String get(final String key, final String defaultValue) {
+        final String value = table.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @return the number of properties
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * @return a new copy of the properties, which the caller is free to modify
+     */
+    public Properties toProperties() {
+        final Properties properties = new Properties();
+        table.copyInto(properties);
+        return properties;
+    }
+
+    /**
+     * @return the properties, in the order of their keys' UTF-8 bytes
+     */
+    PropertyTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return the files the properties were read from, in increasing order of precedence
+     */
+    public List<File> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return <code>true</code> when one of the files was modified, replaced or deleted since it was read
+     */
+    public boolean isStale() {
+        for (int i = 0; i < files.size(); i++) {
+            final File file = files.get(i);
+            if (file.lastModified() != stamps[2 * i] || file.length() != stamps[2 * i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
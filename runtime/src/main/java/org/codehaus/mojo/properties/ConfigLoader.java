@@ -0,0 +1,217 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads properties and YAML files the way the <code>read-project-properties</code> goal does: the files are
+ * flattened and merged in order, later files overriding earlier ones, then the <code>${...}</code> placeholders are
+ * resolved against the merged keys, the system properties and, with an <code>env.</code> prefix, the environment.
+ * <p>
+ * Results are cached: loading the same files again returns the same {@link CompiledConfig} as long as none of them
+ * changed, and when some did, only those are parsed again. Instances are thread safe.
+ *
+ * <pre>
+ * CompiledConfig config = ConfigLoader.getDefault().load(new File("application.yml"));
+ * String url = config.get("spring.datasource.url");
+ * ...
+ * config = ConfigLoader.getDefault().reload(config);
+ * </pre>
+ */
+public final class ConfigLoader {
+
+    private static final ConfigLoader DEFAULT = new ConfigLoader();
+
+    private static final String ENVIRONMENT_PLACEHOLDER = "${env.";
+
+    private final ConcurrentMap<File, ParsedFile> parsedFiles = new ConcurrentHashMap<File, ParsedFile>();
+
+    private final ConcurrentMap<List<File>, CompiledConfig> compiledConfigs =
+            new ConcurrentHashMap<List<File>, CompiledConfig>();
+
+    /**
+     * @return the loader shared by the whole JVM
+     */
+    public static ConfigLoader getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param files the <code>.properties</code>, <code>.yml</code> or <code>.yaml</code> files, optionally gzipped,
+     *              in increasing order of precedence
+     * @return the resolved properties of the files, the cached ones when no file changed since they were loaded
+     * @throws IOException              when a file is missing, has an unknown type or cannot be parsed
+     * @throws IllegalArgumentException when properties are circularly defined
+     */
+    public CompiledConfig load(final File... files)
+            throws IOException {
+        return load(Arrays.asList(files));
+    }
+
+    /**
+     * @param files the files, in increasing order of precedence
+     * @return the resolved properties of the files, the cached ones when no file changed since they were loaded
+     * @throws IOException when a file is missing, has an unknown type or cannot be parsed
+     * @see #load(File...)
+     */
+    public CompiledConfig load(final List<File> files)
+            throws IOException {
+        final List<File> key = new ArrayList<File>(files.size());
+        for (final File file : files) {
+            key.add(file.getAbsoluteFile());
+        }
+
+        final CompiledConfig cached = compiledConfigs.get(key);
+        if (cached != null && !cached.isStale()) {
+            return cached;
+        }
+
+        final CompiledConfig compiled = compile(Collections.unmodifiableList(key));
+        compiledConfigs.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * @param config properties loaded before
+     * @return the given properties when none of their files changed, freshly loaded ones otherwise
+     * @throws IOException when a file is missing or cannot be parsed
+     */
+    public CompiledConfig reload(final CompiledConfig config)
+            throws IOException {
+        return config.isStale() ? load(config.getFiles()) : config;
+    }
+
+    /**
+     * Forgets every cached file and result.
+     */
+    public void clear() {
+        compiledConfigs.clear();
+        parsedFiles.clear();
+    }
+
+    private CompiledConfig compile(final List<File> files)
+            throws IOException {
+        final long[] stamps = new long[2 * files.size()];
+        final Properties merged = new Properties();
+        for (int i = 0; i < files.size(); i++) {
+            final ParsedFile parsed = parse(files.get(i));
+            stamps[2 * i] = parsed.lastModified;
+            stamps[2 * i + 1] = parsed.length;
+            merged.putAll(parsed.properties);
+        }
+
+        final Properties environment = usesEnvironment(merged) ? environment() : null;
+        final PropertyResolver resolver = new PropertyResolver();
+        final Properties resolved = new Properties();
+        for (final String key : merged.stringPropertyNames()) {
+            resolved.setProperty(key, resolver.getPropertyValue(key, merged, environment));
+        }
+
+        return new CompiledConfig(files, stamps,
+                PropertyTable.of(resolved, resolved.stringPropertyNames(), false));
+    }
+
+    private ParsedFile parse(final File file)
+            throws IOException {
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        final ParsedFile cached = parsedFiles.get(file);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached;
+        }
+
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+
+        final ResourceType resourceType = ResourceType.getByFileName(file.getName());
+        if (resourceType == null) {
+            throw new IOException("Cannot find a resource type for " + file);
+        }
+
+        final Properties properties;
+        InputStream stream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            if (ResourceType.isCompressed(file.getName())) {
+                stream = new GZIPInputStream(stream);
+            }
+            if (resourceType == ResourceType.YAML) {
+                properties = YamlToPropertiesConverter.convertToProperties(stream);
+            } else {
+                properties = PropertiesParser.load(stream);
+            }
+        } finally {
+            stream.close();
+        }
+
+        final ParsedFile parsed = new ParsedFile(lastModified, length, properties);
+        parsedFiles.put(file, parsed);
+        return parsed;
+    }
+
+    private static boolean usesEnvironment(final Properties properties) {
+        for (final String key : properties.stringPropertyNames()) {
+            if (properties.getProperty(key).contains(ENVIRONMENT_PLACEHOLDER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Properties environment() {
+        final Properties environment = new Properties();
+        for (final Map.Entry<String, String> variable : System.getenv().entrySet()) {
+            environment.setProperty(variable.getKey(), variable.getValue());
+        }
+        return environment;
+    }
+
+    /**
+     * Unresolved properties of a file, with the modification time and length they were read at.
+     */
+    private static final class ParsedFile {
+        private final long lastModified;
+
+        private final long length;
+
+        private final Properties properties;
+
+        private ParsedFile(final long lastModified, final long length, final Properties properties) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.properties = properties;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Constraints on the keys and values of configuration files: keys that must be present, a pattern every key must
+ * match, and rules on the values of some keys - a pattern, a type or a set of allowed values. Rule keys can use
+ * <code>*</code> for exactly one segment and <code>**</code> for any number of segments.
+ * <p>
+ * The schema is compiled once and checked entry by entry while the files are read, every violation being collected
+ * rather than only the first. The violations of a key are dropped when a later entry replaces it, so that only the
+ * values in effect count. Values holding placeholders are only checked once resolved, which the schema cannot do,
+ * so their value rules are skipped. Instances are immutable and thread safe.
+ */
+final class ConfigSchema {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+
+    private final Set<String> required;
+
+    private final Pattern keyPattern;
+
+    private final Map<String, Rule> exactRules;
+
+    private final List<Rule> patternRules;
+
+    private ConfigSchema(final Set<String> required, final Pattern keyPattern, final Map<String, Rule> exactRules,
+                         final List<Rule> patternRules) {
+        this.required = required;
+        this.keyPattern = keyPattern;
+        this.exactRules = exactRules;
+        this.patternRules = patternRules;
+    }
+
+    /**
+     * @param required   the keys which must be present
+     * @param keyPattern the regular expression every key must match, <code>null</code> for any key
+     * @param rules      the rules on values
+     * @return the schema, or <code>null</code> when it would accept anything
+     * @throws IllegalArgumentException when a pattern or type is invalid
+     */
+    static ConfigSchema compile(final Collection<String> required, final String keyPattern,
+                                final Collection<Rule> rules) {
+        final boolean hasKeyPattern = keyPattern != null && keyPattern.length() > 0;
+        if (required.isEmpty() && !hasKeyPattern && rules.isEmpty()) {
+            return null;
+        }
+
+        final Map<String, Rule> exactRules = new HashMap<String, Rule>();
+        final List<Rule> patternRules = new ArrayList<Rule>();
+        for (final Rule rule : rules) {
+            if (rule.keyPattern == null) {
+                if (exactRules.put(rule.key, rule) != null) {
+                    throw new IllegalArgumentException("Several rules for the key " + rule.key);
+                }
+            } else {
+                patternRules.add(rule);
+            }
+        }
+
+        return new ConfigSchema(Collections.unmodifiableSet(new LinkedHashSet<String>(required)),
+                hasKeyPattern ? compilePattern("key pattern", keyPattern) : null, exactRules, patternRules);
+    }
+
+    /**
+     * @return the state of a new check, over any number of files
+     */
+    Validation start() {
+        return new Validation();
+    }
+
+    private static Pattern compilePattern(final String name, final String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s '%s': %s", name, regex,
+                    e.getDescription()), e);
+        }
+    }
+
+    /**
+     * Translates a key with <code>*</code> and <code>**</code> segments into a regular expression.
+     */
+    private static Pattern keyPattern(final String key) {
+        final StringBuilder regex = new StringBuilder();
+        final String[] segments = key.split("\\.", -1);
+        for (int i = 0; i < segments.length; i++) {
+            final boolean first = i == 0;
+            final boolean last = i == segments.length - 1;
+            if ("**".equals(segments[i])) {
+                // any number of segments, with the separators around them
+                regex.append(first && last ? ".*" : first ? "(?:[^.]*\\.)*" : "(?:\\.[^.]*)*");
+                continue;
+            }
+            // a leading ** already ends with a separator
+            if (!first && !(i == 1 && "**".equals(segments[0]))) {
+                regex.append("\\.");
+            }
+            regex.append("*".equals(segments[i]) ? "[^.]*" : Pattern.quote(segments[i]));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * The violations found by a check. Not thread safe: a check is fed by a single thread at a time.
+     */
+    final class Validation {
+        private final Set<String> seen = new HashSet<String>();
+
+        /**
+         * The violations of the last entry of each key, in the order the keys were last read.
+         */
+        private final Map<String, List<String>> violations = new LinkedHashMap<String, List<String>>();
+
+        private String resource;
+
+        private Validation() {
+        }
+
+        /**
+         * @param resource the resource whose entries follow, named in the violations
+         */
+        void enter(final String resource) {
+            this.resource = resource;
+        }
+
+        /**
+         * @param key   the key, as read from the file
+         * @param value its unresolved value, replacing any earlier one of the key
+         */
+        void check(final String key, final String value) {
+            violations.remove(key);
+            if (required.contains(key)) {
+                seen.add(key);
+            }
+            if (keyPattern != null && !keyPattern.matcher(key).matches()) {
+                violation(key, "does not match the key pattern " + keyPattern.pattern());
+            }
+            if (value == null || value.contains(PLACEHOLDER_PREFIX)) {
+                return;
+            }
+
+            final Rule exact = exactRules.get(key);
+            if (exact != null) {
+                check(exact, key, value);
+            }
+            for (final Rule rule : patternRules) {
+                if (rule.keyPattern.matcher(key).matches()) {
+                    check(rule, key, value);
+                }
+            }
+        }
+
+        /**
+         * @return every violation found, including the required keys never seen
+         */
+        List<String> finish() {
+            final List<String> all = new ArrayList<String>();
+            for (final List<String> keyViolations : violations.values()) {
+                all.addAll(keyViolations);
+            }
+            for (final String key : required) {
+                if (!seen.contains(key)) {
+                    all.add(key + ": is required but missing");
+                }
+            }
+            return all;
+        }
+
+        private void check(final Rule rule, final String key, final String value) {
+            if (rule.type != null && !rule.type.accepts(value)) {
+                violation(key, String.format("'%s' is not of type %s", value,
+                        rule.type.name().toLowerCase(Locale.ROOT)));
+            }
+            if (rule.valuePattern != null && !rule.valuePattern.matcher(value).matches()) {
+                violation(key, String.format("'%s' does not match %s", value, rule.valuePattern.pattern()));
+            }
+            if (rule.allowed != null && !rule.allowed.contains(value)) {
+                violation(key, String.format("'%s' is not one of %s", value, rule.allowed));
+            }
+        }
+
+        private void violation(final String key, final String message) {
+            List<String> keyViolations = violations.get(key);
+            if (keyViolations == null) {
+                keyViolations = new ArrayList<String>(1);
+                violations.put(key, keyViolations);
+            }
+            keyViolations.add(key + ": " + message + (resource == null ? "" : " (" + resource + ")"));
+        }
+    }
+
+    /**
+     * The constraints on the values of a key, or of the keys matching a pattern.
+     */
+    static final class Rule {
+        private final String key;
+
+        private final Pattern keyPattern;
+
+        private final Pattern valuePattern;
+
+        private final Type type;
+
+        private final Set<String> allowed;
+
+        /**
+         * @param key     the key, which can use <code>*</code> and <code>**</code> segments
+         * @param pattern the regular expression values must match, can be <code>null</code>
+         * @param type    the name of the type of values, such as <code>integer</code>, can be <code>null</code>
+         * @param allowed the values allowed, can be <code>null</code> or empty for any value
+         * @throws IllegalArgumentException when the key is missing, or the pattern or type invalid
+         */
+        Rule(final String key, final String pattern, final String type, final Collection<String> allowed) {
+            if (key == null || key.length() == 0) {
+                throw new IllegalArgumentException("A rule needs a key");
+            }
+            this.key = key;
+            this.keyPattern = key.contains("*") ? keyPattern(key) : null;
+            this.valuePattern = pattern == null || pattern.length() == 0 ? null : compilePattern("pattern", pattern);
+            this.type = type == null || type.length() == 0 ? null : Type.of(type);
+            this.allowed = allowed == null || allowed.isEmpty() ? null
+                    : Collections.unmodifiableSet(new LinkedHashSet<String>(allowed));
+        }
+    }
+
+    /**
+     * The types values can be checked against.
+     */
+    enum Type {
+        STRING {
+            boolean accepts(final String value) {
+                return true;
+            }
+        },
+        INTEGER {
+            boolean accepts(final String value) {
+                try {
+                    Long.parseLong(value.trim());
+                    return true;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        },
+        NUMBER {
+            boolean accepts(final String value) {
+                try {
+                    new BigDecimal(value.trim());
+                    return true;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        },
+        BOOLEAN {
+            boolean accepts(final String value) {
+                return "true".equalsIgnoreCase(value.trim()) || "false".equalsIgnoreCase(value.trim());
+            }
+        };
+
+        abstract boolean accepts(String value);
+
+        static Type of(final String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Unknown type '%s', expected one of %s", name,
+                        Arrays.toString(values()).toLowerCase(Locale.ROOT)), e);
+            }
+        }
+    }
+}
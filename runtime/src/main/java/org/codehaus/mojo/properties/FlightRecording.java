@@ -0,0 +1,127 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.reflect.Method;
+
+/**
+ * Marks the plugin phases in JDK Flight Recorder recordings, so that they show up in JMC timelines apart from the
+ * work of Maven itself. Does nothing on runtimes without <code>jdk.jfr</code>, nor while no recording was started:
+ * the first event class loaded initializes the whole recorder, which would cost every build a noticeable part of its
+ * startup time.
+ * <p>
+ * The events extend <code>jdk.jfr.Event</code>, which Java 7 lacks, so they live in a source folder of their own,
+ * compiled only by builds running on Java 11 or later (see the <code>flight-recorder</code> profile of the root
+ * POM), and are only reached through reflection. A plugin built on an older JDK records nothing.
+ */
+class FlightRecording {
+
+    private static final String RECORDER_CLASS = "org.codehaus.mojo.properties.FlightRecorderSpans";
+
+    private static final Span NO_OP = new Span();
+
+    /**
+     * <code>FlightRecorder.isInitialized()</code>, <code>null</code> when the runtime has no flight recorder or the
+     * plugin was built without its events.
+     */
+    private static final Method IS_INITIALIZED = isInitializedMethod();
+
+    /**
+     * @param phase    the phase starting
+     * @param resource what the phase works on
+     * @return the span to end once the phase is over
+     */
+    static Span start(final Phase phase, final String resource) {
+        if (IS_INITIALIZED == null || !isRecording() || Events.RECORDER == null) {
+            return NO_OP;
+        }
+
+        return Events.RECORDER.start(phase, resource);
+    }
+
+    private static Method isInitializedMethod() {
+        try {
+            final String recorderFile = RECORDER_CLASS.replace('.', '/') + ".class";
+            if (FlightRecording.class.getClassLoader().getResource(recorderFile) == null) {
+                return null;
+            }
+            return Class.forName("jdk.jfr.FlightRecorder").getMethod("isInitialized");
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return whether a recording was started, without initializing the recorder when none was
+     */
+    private static boolean isRecording() {
+        try {
+            return (Boolean) IS_INITIALIZED.invoke(null);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * A phase being recorded.
+     */
+    static class Span {
+        /**
+         * @param bytes the bytes the phase read or wrote
+         * @param keys  the keys the phase produced
+         */
+        void end(final long bytes, final long keys) {
+        }
+    }
+
+    /**
+     * Starts the spans backed by flight recorder events.
+     */
+    interface Recorder {
+        /**
+         * @param phase    the phase starting
+         * @param resource what the phase works on
+         * @return the span to end once the phase is over
+         */
+        Span start(Phase phase, String resource);
+    }
+
+    /**
+     * Holds the recorder, loaded with the event classes once the first recording is running.
+     */
+    private static final class Events {
+        private static final Recorder RECORDER = load();
+
+        private static Recorder load() {
+            try {
+                return (Recorder) Class.forName(RECORDER_CLASS).newInstance();
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The plugin phases recorded.
+     */
+    enum Phase {
+        LOAD, CONVERT, RESOLVE, WRITE
+    }
+}
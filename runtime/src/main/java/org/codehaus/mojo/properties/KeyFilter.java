@@ -0,0 +1,289 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects keys by their dot-separated segments, so that a hierarchy can be walked one segment at a time and whole
+ * subtrees skipped as soon as no pattern can match below them.
+ * <p>
+ * A key is selected when it lies below the root path, when an include pattern matches the key or one of its
+ * ancestors (or no include pattern is given), and when no exclude pattern matches the key or one of its ancestors.
+ * In patterns, <code>*</code> stands for exactly one segment and <code>**</code> for any number of segments, so
+ * <code>spring.datasource</code>, <code>spring.datasource.*</code> and <code>spring.datasource.**</code> all select
+ * the whole <code>spring.datasource</code> subtree. Selected keys are reported relative to the root path.
+ * <p>
+ * The patterns are compiled once into tries of segments; instances are immutable and thread safe.
+ */
+class KeyFilter {
+
+    private static final String SEPARATOR = ".";
+
+    private static final String ANY_SEGMENT = "*";
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private final String[] root;
+
+    private final Node includes;
+
+    private final Node excludes;
+
+    private KeyFilter(final String[] root, final Node includes, final Node excludes) {
+        this.root = root;
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * @param rootPath the subtree to select, <code>null</code> or empty for the whole hierarchy
+     * @param includes the patterns of keys to select, none to select all keys
+     * @param excludes the patterns of keys to skip
+     * @return the filter, or <code>null</code> when it would select every key unchanged
+     */
+    static KeyFilter compile(final String rootPath, final String[] includes, final String[] excludes) {
+        final boolean hasRoot = rootPath != null && rootPath.length() > 0;
+        final boolean hasIncludes = includes != null && includes.length > 0;
+        final boolean hasExcludes = excludes != null && excludes.length > 0;
+        if (!hasRoot && !hasIncludes && !hasExcludes) {
+            return null;
+        }
+
+        return new KeyFilter(hasRoot ? split(rootPath) : new String[0],
+                hasIncludes ? compile(includes) : null,
+                hasExcludes ? compile(excludes) : null);
+    }
+
+    /**
+     * @return the state at the top of the hierarchy
+     */
+    Walk start() {
+        return new Walk(0, includes == null ? null : closure(Collections.singletonList(includes)), false,
+                excludes == null ? null : closure(Collections.singletonList(excludes)), null);
+    }
+
+    /**
+     * Filters a flat key in one go.
+     *
+     * @param key the full key
+     * @return the key relative to the root path, or <code>null</code> when not selected
+     */
+    String apply(final String key) {
+        final Walk walk = start().child(key);
+        return walk != null && walk.isSelected() ? walk.relativeKey() : null;
+    }
+
+    private static Node compile(final String[] patterns) {
+        final Node trie = new Node();
+        for (final String pattern : patterns) {
+            Node node = trie;
+            for (final String segment : split(pattern.trim())) {
+                node = node.next(segment);
+            }
+            node.terminal = true;
+        }
+        return trie;
+    }
+
+    private static String[] split(final String path) {
+        final List<String> segments = new ArrayList<String>();
+        int start = 0;
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', start)) {
+            segments.add(path.substring(start, dot));
+            start = dot + 1;
+        }
+        segments.add(path.substring(start));
+        return segments.toArray(new String[segments.size()]);
+    }
+
+    /**
+     * Adds the states reachable without consuming a segment, that is through <code>**</code> matching nothing.
+     */
+    private static List<Node> closure(final List<Node> states) {
+        final List<Node> closed = new ArrayList<Node>(states);
+        for (int i = 0; i < closed.size(); i++) {
+            final Node anySegments = closed.get(i).anySegments;
+            if (anySegments != null && !closed.contains(anySegments)) {
+                closed.add(anySegments);
+            }
+        }
+        return closed;
+    }
+
+    private static List<Node> advance(final List<Node> states, final String segment) {
+        final List<Node> next = new ArrayList<Node>(2);
+        for (final Node state : states) {
+            final Node literal = state.literals.get(segment);
+            if (literal != null) {
+                next.add(literal);
+            }
+            if (state.anySegment != null) {
+                next.add(state.anySegment);
+            }
+            if (state.repeating) {
+                next.add(state);
+            }
+        }
+        return closure(next);
+    }
+
+    private static boolean anyTerminal(final List<Node> states) {
+        for (final Node state : states) {
+            if (state.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Position in a hierarchy being walked. Immutable, each step returns a new instance.
+     */
+    final class Walk {
+        private final int rootDepth;
+
+        private final List<Node> includeStates;
+
+        private final boolean included;
+
+        private final List<Node> excludeStates;
+
+        private final String relativeKey;
+
+        private Walk(final int rootDepth, final List<Node> includeStates, final boolean included,
+                     final List<Node> excludeStates, final String relativeKey) {
+            this.rootDepth = rootDepth;
+            this.includeStates = includeStates;
+            this.included = included;
+            this.excludeStates = excludeStates;
+            this.relativeKey = relativeKey;
+        }
+
+        /**
+         * @param key the key of a child, which may itself hold several dot-separated segments
+         * @return the position of the child, or <code>null</code> when nothing below it can be selected
+         */
+        Walk child(final String key) {
+            int depth = rootDepth;
+            List<Node> includeNext = includeStates;
+            boolean includedNext = included;
+            List<Node> excludeNext = excludeStates;
+            StringBuilder relative = null;
+
+            int start = 0;
+            while (start <= key.length()) {
+                int end = key.indexOf('.', start);
+                if (end < 0) {
+                    end = key.length();
+                }
+                final String segment = key.substring(start, end);
+                start = end + 1;
+
+                if (depth < root.length) {
+                    if (!root[depth].equals(segment)) {
+                        return null;
+                    }
+                    depth++;
+                    continue;
+                }
+
+                if (excludeNext != null) {
+                    excludeNext = advance(excludeNext, segment);
+                    if (anyTerminal(excludeNext)) {
+                        return null;
+                    }
+                }
+
+                if (includeNext != null && !includedNext) {
+                    includeNext = advance(includeNext, segment);
+                    includedNext = anyTerminal(includeNext);
+                    if (!includedNext && includeNext.isEmpty()) {
+                        return null;
+                    }
+                }
+
+                if (relative == null) {
+                    relative = new StringBuilder(relativeKey == null ? "" : relativeKey + SEPARATOR);
+                } else {
+                    relative.append(SEPARATOR);
+                }
+                relative.append(segment);
+            }
+
+            return new Walk(depth, includeNext, includedNext, excludeNext,
+                    relative == null ? relativeKey : relative.toString());
+        }
+
+        /**
+         * @return <code>true</code> when the position is selected, so that a value found here is kept
+         */
+        boolean isSelected() {
+            return relativeKey != null && (includes == null || included);
+        }
+
+        /**
+         * @return the path of the position relative to the root path, <code>null</code> while above or at the root
+         */
+        String relativeKey() {
+            return relativeKey;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<String, Node>();
+
+        private Node anySegment;
+
+        private Node anySegments;
+
+        private boolean repeating;
+
+        private boolean terminal;
+
+        private Node next(final String segment) {
+            if (ANY_SEGMENTS.equals(segment)) {
+                if (anySegments == null) {
+                    anySegments = new Node();
+                    anySegments.repeating = true;
+                }
+                return anySegments;
+            }
+
+            if (ANY_SEGMENT.equals(segment)) {
+                if (anySegment == null) {
+                    anySegment = new Node();
+                }
+                return anySegment;
+            }
+
+            Node node = literals.get(segment);
+            if (node == null) {
+                node = new Node();
+                literals.put(segment, node);
+            }
+            return node;
+        }
+    }
+}
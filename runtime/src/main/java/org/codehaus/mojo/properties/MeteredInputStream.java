@@ -0,0 +1,68 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read through it and the time spent waiting for them.
+ */
+class MeteredInputStream
+        extends FilterInputStream {
+    private long bytes;
+
+    private long nanos;
+
+    MeteredInputStream(final InputStream in) {
+        super(in);
+    }
+
+    public int read()
+            throws IOException {
+        final long start = System.nanoTime();
+        final int read = super.read();
+        nanos += System.nanoTime() - start;
+        if (read != -1) {
+            bytes++;
+        }
+        return read;
+    }
+
+    public int read(final byte[] buffer, final int offset, final int length)
+            throws IOException {
+        final long start = System.nanoTime();
+        final int read = super.read(buffer, offset, length);
+        nanos += System.nanoTime() - start;
+        if (read > 0) {
+            bytes += read;
+        }
+        return read;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,319 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Reads the <code>.properties</code> format as {@link Properties#load(InputStream)} does since Java 9: ISO-8859-1 text,
+ * <code>#</code> and <code>!</code> comments, lines continued by an odd number of trailing backslashes, keys
+ * separated from values by <code>=</code>, <code>:</code> or whitespace, and the <code>\t</code>, <code>\n</code>,
+ * <code>\f</code>, <code>\r</code> and <code>\</code><code>uXXXX</code> escapes.
+ * <p>
+ * The input is read in large blocks and decoded in place, one logical line at a time, into a buffer reused across
+ * lines; keys and values without escapes are copied out of it without a second pass. Each entry is given to a
+ * {@link Sink} as soon as it is read, so that the caller decides where it goes. Not thread safe.
+ * <p>
+ * On Java 7 and 8, <code>Properties.load</code> reads two cases differently, and the parser does not follow it there,
+ * whatever the runtime: a backslash ending a comment line has no effect on the next line, and a continuation line
+ * starting a still empty logical line with <code>#</code> or <code>!</code> is a comment.
+ */
+final class PropertiesParser {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final InputStream in;
+
+    private final byte[] input = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * The current logical line, continuations joined and comments dropped, still escaped.
+     */
+    private char[] line = new char[256];
+
+    /**
+     * Whether the current logical line holds a backslash, and so needs unescaping.
+     */
+    private boolean escaped;
+
+    private char[] unescaped = new char[256];
+
+    private PropertiesParser(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @param in   the properties to read, not closed
+     * @param sink receives each entry in the order of the input, including the entries of keys repeated later
+     * @throws IOException              when the input cannot be read
+     * @throws IllegalArgumentException when an <code>\</code><code>uXXXX</code> escape is malformed
+     */
+    static void parse(final InputStream in, final Sink sink)
+            throws IOException {
+        final PropertiesParser parser = new PropertiesParser(in);
+        int length;
+        while ((length = parser.readLine()) >= 0) {
+            parser.split(length, sink);
+        }
+    }
+
+    /**
+     * @param in the properties to read, not closed
+     * @return the properties, later entries replacing earlier ones of the same key
+     * @throws IOException when the input cannot be read
+     */
+    static Properties load(final InputStream in)
+            throws IOException {
+        final Properties properties = new Properties();
+        parse(in, new Sink() {
+            public void property(final String key, final String value) {
+                properties.put(key, value);
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Reads the next logical line into {@link #line}, following the rules of <code>Properties.LineReader</code>.
+     *
+     * @return the length of the line, -1 at the end of the input
+     */
+    private int readLine()
+            throws IOException {
+        int length = 0;
+        boolean skipWhitespace = true;
+        boolean comment = false;
+        boolean continued = false;
+        boolean precedingBackslash = false;
+        boolean skipLineFeed = false;
+        escaped = false;
+
+        while (true) {
+            if (position >= limit && !fill()) {
+                if (length == 0 || comment) {
+                    return -1;
+                }
+                return precedingBackslash ? length - 1 : length;
+            }
+
+            final char c = (char) (input[position++] & 0xFF);
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            if (skipWhitespace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!continued && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhitespace = false;
+                continued = false;
+            }
+
+            if (length == 0 && (c == '#' || c == '!')) {
+                comment = true;
+            }
+
+            if (c != '\n' && c != '\r') {
+                if (comment) {
+                    skipToLineEnd();
+                    continue;
+                }
+                if (length == line.length) {
+                    line = grow(line);
+                }
+                line[length++] = c;
+                if (c == '\\') {
+                    precedingBackslash = !precedingBackslash;
+                    escaped = true;
+                } else {
+                    precedingBackslash = false;
+                    length = copyToSpecial(length);
+                }
+            } else if (comment || length == 0) {
+                comment = false;
+                skipWhitespace = true;
+                length = 0;
+            } else if (position >= limit && !fill()) {
+                // like Properties.load, a line continued at the very end of the input is kept, even when empty
+                return precedingBackslash ? length - 1 : length;
+            } else if (precedingBackslash) {
+                // the backslash joins the next line, whose leading whitespace is dropped
+                length--;
+                skipWhitespace = true;
+                continued = true;
+                precedingBackslash = false;
+                skipLineFeed = c == '\r';
+            } else {
+                return length;
+            }
+        }
+    }
+
+    /**
+     * Splits the current logical line into its key and value, following the rules of <code>Properties.load</code>.
+     */
+    private void split(final int length, final Sink sink) {
+        int keyLength = 0;
+        int valueStart = length;
+        boolean separator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            final char c = line[keyLength];
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                separator = true;
+                break;
+            } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            keyLength++;
+        }
+
+        while (valueStart < length) {
+            final char c = line[valueStart];
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (!separator && (c == '=' || c == ':')) {
+                    separator = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+
+        sink.property(unescape(0, keyLength), unescape(valueStart, length - valueStart));
+    }
+
+    private String unescape(final int offset, final int length) {
+        if (!escaped) {
+            return new String(line, offset, length);
+        }
+
+        if (unescaped.length < length) {
+            unescaped = new char[Math.max(length, 2 * unescaped.length)];
+        }
+        final int end = offset + length;
+        int index = offset;
+        int unescapedLength = 0;
+        while (index < end) {
+            char c = line[index++];
+            if (c == '\\' && index < end) {
+                c = line[index++];
+                if (c == 'u') {
+                    if (end - index < 4) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    c = (char) (hex(line[index]) << 12 | hex(line[index + 1]) << 8 | hex(line[index + 2]) << 4
+                            | hex(line[index + 3]));
+                    index += 4;
+                } else if (c == 't') {
+                    c = '\t';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'f') {
+                    c = '\f';
+                }
+            }
+            unescaped[unescapedLength++] = c;
+        }
+        return new String(unescaped, 0, unescapedLength);
+    }
+
+    private static int hex(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+    }
+
+    /**
+     * Copies the characters following a plain one into the line, up to the next backslash or line terminator or the
+     * end of the buffer, without the checks of {@link #readLine()}.
+     *
+     * @return the new length of the line
+     */
+    private int copyToSpecial(final int start) {
+        int length = start;
+        int index = position;
+        while (index < limit) {
+            final byte b = input[index];
+            if (b == '\\' || b == '\r' || b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = grow(line);
+            }
+            line[length++] = (char) (b & 0xFF);
+            index++;
+        }
+        position = index;
+        return length;
+    }
+
+    private void skipToLineEnd() {
+        int index = position;
+        while (index < limit && input[index] != '\r' && input[index] != '\n') {
+            index++;
+        }
+        position = index;
+    }
+
+    private boolean fill()
+            throws IOException {
+        limit = in.read(input, 0, input.length);
+        position = 0;
+        return limit > 0;
+    }
+
+    private static char[] grow(final char[] chars) {
+        final char[] grown = new char[2 * chars.length];
+        System.arraycopy(chars, 0, grown, 0, chars.length);
+        return grown;
+    }
+
+    /**
+     * Receives the entries as they are read.
+     */
+    interface Sink {
+        void property(String key, String value);
+    }
+}
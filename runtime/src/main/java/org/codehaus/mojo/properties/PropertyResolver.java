@@ -0,0 +1,285 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collection;
+import java.util.Properties;
+
+class PropertyResolver {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+
+    private static final char PLACEHOLDER_SUFFIX = '}';
+
+    private static final char DEFAULT_SEPARATOR = ':';
+
+    /**
+     * Part of a value being scanned: plain text, the key of a placeholder or its default.
+     */
+    private static final int TEXT = 0;
+
+    private static final int KEY = 1;
+
+    private static final int DEFAULT = 2;
+
+    private final Properties systemOverlay;
+
+    private final ExpressionLookup expressions;
+
+    private long placeholdersExpanded;
+
+    private int maxDepth;
+
+    PropertyResolver() {
+        this(null);
+    }
+
+    /**
+     * @param systemOverlay system properties visible to the current project only, looked up before the JVM-wide ones,
+     *                      can be <code>null</code>
+     */
+    PropertyResolver(Properties systemOverlay) {
+        this(systemOverlay, null);
+    }
+
+    /**
+     * @param systemOverlay system properties visible to the current project only, looked up before the JVM-wide ones,
+     *                      can be <code>null</code>
+     * @param expressions   looked up last, for the placeholders nothing else defines, can be <code>null</code>
+     */
+    PropertyResolver(Properties systemOverlay, ExpressionLookup expressions) {
+        this.systemOverlay = systemOverlay;
+        this.expressions = expressions;
+    }
+
+    /**
+     * Retrieves a property value, replacing values like ${token} using the Properties to look them up. Shamelessly
+     * adapted from:
+     * http://maven.apache.org/plugins/maven-war-plugin/xref/org/apache/maven/plugin/war/PropertyUtils.html It will
+     * leave unresolved properties alone, trying for System properties, and environment variables and implements
+     * reparsing (in the case that the value of a property contains a key), and will not loop endlessly on a pair like
+     * test = ${test}
+     * <p>
+     * A placeholder can give a default value, used when its key is not found, as in <code>${port:8080}</code>, and
+     * its key or default can hold placeholders, as in <code>${db.${env}.url}</code>. The value is scanned once from
+     * left to right, the values found for the placeholders being expanded as they are met.
+     *
+     * @param key         property key
+     * @param properties  project properties
+     * @param environment environment variables
+     * @return resolved property value
+     * @throws IllegalArgumentException when properties are circularly defined
+     */
+    public String getPropertyValue(String key, Properties properties, Properties environment) {
+        return getPropertyValue(key, properties, environment, null);
+    }
+
+    /**
+     * @param key         property key
+     * @param properties  project properties
+     * @param environment environment variables
+     * @param referenced  where the keys looked up while resolving are added, found or not, can be <code>null</code>
+     * @return resolved property value
+     * @throws IllegalArgumentException when properties are circularly defined
+     * @see #getPropertyValue(String, Properties, Properties)
+     */
+    String getPropertyValue(String key, Properties properties, Properties environment, Collection<String> referenced) {
+        String value = properties.getProperty(key);
+
+        Expansion expansion = new Expansion(properties, environment, referenced,
+                new CircularDefinitionPreventer().visited(key, value));
+        StringBuilder resolved = new StringBuilder();
+        if (value != null) {
+            expansion.scan(value, 0, TEXT, resolved);
+        }
+
+        placeholdersExpanded += expansion.expanded;
+        maxDepth = Math.max(maxDepth, expansion.maxNesting);
+
+        return resolved.toString();
+    }
+
+    /**
+     * @return the number of placeholders expanded by this resolver so far
+     */
+    long getPlaceholdersExpanded() {
+        return placeholdersExpanded;
+    }
+
+    /**
+     * @return the deepest nesting of placeholders met while resolving a single value, a placeholder found in the key,
+     * default or value of another one being one level deeper
+     */
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private String fromPropertiesThenSystemThenEnvironment(String key, Properties properties, Properties environment) {
+        String value = properties.getProperty(key);
+
+        // try system properties set for this project only
+        if (value == null && systemOverlay != null) {
+            value = systemOverlay.getProperty(key);
+        }
+
+        // try global environment
+        if (value == null) {
+            value = System.getProperty(key);
+        }
+
+        // try environment variable
+        if (value == null && key.startsWith("env.") && environment != null) {
+            value = environment.getProperty(key.substring(4));
+        }
+
+        // try expressions, such as those on the build model
+        if (value == null && expressions != null) {
+            value = expressions.lookup(key);
+        }
+
+        return value;
+    }
+
+    /**
+     * The resolution of a single property, a recursive descent over the grammar
+     * <pre>
+     * text        := (character | placeholder)*
+     * placeholder := "${" key [":" default] "}"
+     * key         := (character other than ":" and "}" | placeholder)*
+     * default     := (character other than "}" | placeholder)*
+     * </pre>
+     * Only the chain of properties being expanded is kept for the cycle protection, so a property can be referenced
+     * several times by the same value.
+     */
+    private class Expansion {
+        private final Properties properties;
+
+        private final Properties environment;
+
+        private final Collection<String> referenced;
+
+        private final CircularDefinitionPreventer circularDefinitionPreventer;
+
+        private int expanded;
+
+        /**
+         * Number of placeholders being expanded around the current position.
+         */
+        private int nesting;
+
+        private int maxNesting;
+
+        private Expansion(Properties properties, Properties environment, Collection<String> referenced,
+                          CircularDefinitionPreventer circularDefinitionPreventer) {
+            this.properties = properties;
+            this.environment = environment;
+            this.referenced = referenced;
+            this.circularDefinitionPreventer = circularDefinitionPreventer;
+        }
+
+        /**
+         * Expands a part of a text.
+         *
+         * @param text the text
+         * @param from where the part starts
+         * @param part what the part is, which tells the characters ending it
+         * @param out  where the expanded part is appended, <code>null</code> to skip the part without resolving it
+         * @return where the part ends, the length of the text when it ended first
+         */
+        int scan(String text, int from, int part, StringBuilder out) {
+            int position = from;
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (text.startsWith(PLACEHOLDER_PREFIX, position)) {
+                    position = placeholder(text, position, out);
+                } else if ((part != TEXT && c == PLACEHOLDER_SUFFIX) || (part == KEY && c == DEFAULT_SEPARATOR)) {
+                    return position;
+                } else {
+                    if (out != null) {
+                        out.append(c);
+                    }
+                    position++;
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Expands the placeholder starting at the given position. A placeholder never closed is left as is.
+         *
+         * @return where the text following the placeholder starts
+         */
+        private int placeholder(String text, int start, StringBuilder out) {
+            nesting++;
+            try {
+                return expand(text, start, out);
+            } finally {
+                nesting--;
+            }
+        }
+
+        private int expand(String text, int start, StringBuilder out) {
+            StringBuilder key = out == null ? null : new StringBuilder();
+            int end = scan(text, start + PLACEHOLDER_PREFIX.length(), KEY, key);
+
+            String value = null;
+            if (out != null && end < text.length()) {
+                expanded++;
+                maxNesting = Math.max(maxNesting, nesting);
+                value = lookup(key.toString());
+            }
+
+            boolean hasDefault = end < text.length() && text.charAt(end) == DEFAULT_SEPARATOR;
+            StringBuilder defaultValue = null;
+            if (hasDefault) {
+                // the default is only resolved when used
+                defaultValue = out != null && value == null ? new StringBuilder() : null;
+                end = scan(text, end + 1, DEFAULT, defaultValue);
+            }
+
+            if (end == text.length()) {
+                if (out != null) {
+                    out.append(text, start, end);
+                }
+                return end;
+            }
+
+            if (out != null) {
+                if (value != null) {
+                    circularDefinitionPreventer.visited(key.toString(), value);
+                    scan(value, 0, TEXT, out);
+                    circularDefinitionPreventer.left();
+                } else if (hasDefault) {
+                    out.append(defaultValue);
+                } else {
+                    out.append(PLACEHOLDER_PREFIX).append(key).append(PLACEHOLDER_SUFFIX);
+                }
+            }
+            return end + 1;
+        }
+
+        private String lookup(String key) {
+            if (referenced != null) {
+                referenced.add(key);
+            }
+            return fromPropertiesThenSystemThenEnvironment(key, properties, environment);
+        }
+    }
+}
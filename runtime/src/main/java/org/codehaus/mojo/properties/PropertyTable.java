@@ -0,0 +1,253 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Immutable properties stored as a single region of UTF-8 bytes, the entries sorted by key, with an index of the
+ * offsets of their keys and values. An entry costs its encoded bytes plus 8 bytes of index, against more than a
+ * hundred bytes of objects for an entry of {@link Properties}, and the region can live outside the heap.
+ * <p>
+ * Keys are looked up by binary search over the encoded bytes, entries are iterated as byte views of the region, and
+ * strings are only decoded when copying the entries into {@link Properties}. Instances are thread safe.
+ */
+final class PropertyTable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Comparator<byte[][]> BY_KEY = new Comparator<byte[][]>() {
+        public int compare(final byte[][] left, final byte[][] right) {
+            return compareBytes(left[0], right[0]);
+        }
+    };
+
+    /**
+     * The keys and values of the entries, one after the other. Never modified once built, only read-only views of it
+     * are handed out.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * For each entry, the offset of its key then the offset of its value, followed by the end of the data. The key
+     * ends where the value starts and the value where the next key starts.
+     */
+    private final IntBuffer index;
+
+    private final int size;
+
+    private PropertyTable(final ByteBuffer data, final IntBuffer index, final int size) {
+        this.data = data;
+        this.index = index;
+        this.size = size;
+    }
+
+    /**
+     * @param properties the properties to copy from
+     * @param keys       the keys to copy, those without a value in <code>properties</code> are skipped
+     * @param direct     whether the table is stored outside the heap
+     * @return the table of the given entries
+     */
+    static PropertyTable of(final Properties properties, final Collection<String> keys, final boolean direct) {
+        final List<byte[][]> entries = new ArrayList<byte[][]>(keys.size());
+        int bytes = 0;
+        for (final String key : keys) {
+            final String value = properties.getProperty(key);
+            if (value != null) {
+                final byte[][] entry = {key.getBytes(UTF_8), value.getBytes(UTF_8)};
+                entries.add(entry);
+                bytes += entry[0].length + entry[1].length;
+            }
+        }
+
+        final byte[][][] sorted = entries.toArray(new byte[entries.size()][][]);
+        Arrays.sort(sorted, BY_KEY);
+
+        final int indexLength = 2 * sorted.length + 1;
+        final ByteBuffer data = direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        final IntBuffer index = direct
+                ? ByteBuffer.allocateDirect(4 * indexLength).asIntBuffer() : IntBuffer.allocate(indexLength);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            // the same key given twice only keeps its first value
+            if (i > 0 && BY_KEY.compare(sorted[i - 1], sorted[i]) == 0) {
+                continue;
+            }
+            index.put(data.position());
+            data.put(sorted[i][0]);
+            index.put(data.position());
+            data.put(sorted[i][1]);
+            size++;
+        }
+        index.put(data.position());
+
+        data.flip();
+        index.flip();
+        return new PropertyTable(data, index, size);
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the value of the key, <code>null</code> when absent
+     */
+    String get(final String key) {
+        final byte[] wanted = key.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int keyStart = index.get(2 * middle);
+            final int valueStart = index.get(2 * middle + 1);
+            final int comparison = compareBytes(data, keyStart, valueStart, wanted);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return decode(valueStart, index.get(2 * middle + 2));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visits the entries in key order. The views given to the visitor are only valid during the call.
+     *
+     * @param visitor receives a read-only view of each key and value
+     */
+    void forEach(final EntryVisitor visitor) {
+        final ByteBuffer key = data.asReadOnlyBuffer();
+        final ByteBuffer value = data.asReadOnlyBuffer();
+        for (int i = 0; i < size; i++) {
+            final int keyStart = index.get(2 * i);
+            final int valueStart = index.get(2 * i + 1);
+            final int valueEnd = index.get(2 * i + 2);
+            key.limit(valueStart).position(keyStart);
+            value.limit(valueEnd).position(valueStart);
+            visitor.visit(key, value);
+        }
+    }
+
+    /**
+     * Decodes every entry into the given properties, replacing the existing values of the same keys.
+     *
+     * @param target where the entries are copied
+     */
+    void copyInto(final Properties target) {
+        for (int i = 0; i < size; i++) {
+            final int valueStart = index.get(2 * i + 1);
+            target.setProperty(decode(index.get(2 * i), valueStart), decode(valueStart, index.get(2 * i + 2)));
+        }
+    }
+
+    /**
+     * @param position the position of an entry, in key order
+     * @return the UTF-8 bytes of its key
+     */
+    byte[] keyAt(final int position) {
+        return bytes(index.get(2 * position), index.get(2 * position + 1));
+    }
+
+    /**
+     * @param position the position of an entry, in key order
+     * @return the UTF-8 bytes of its value
+     */
+    byte[] valueAt(final int position) {
+        return bytes(index.get(2 * position + 1), index.get(2 * position + 2));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes taken by the entries and the index
+     */
+    long getSizeInBytes() {
+        return data.capacity() + 4L * index.capacity();
+    }
+
+    boolean isDirect() {
+        return data.isDirect();
+    }
+
+    private byte[] bytes(final int start, final int end) {
+        final ByteBuffer view = data.duplicate();
+        view.limit(end).position(start);
+        final byte[] bytes = new byte[end - start];
+        view.get(bytes);
+        return bytes;
+    }
+
+    private String decode(final int start, final int end) {
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + start, end - start, UTF_8);
+        }
+
+        final ByteBuffer view = data.duplicate();
+        view.limit(end).position(start);
+        return UTF_8.decode(view).toString();
+    }
+
+    private static int compareBytes(final ByteBuffer buffer, final int start, final int end, final byte[] other) {
+        final int length = end - start;
+        final int common = Math.min(length, other.length);
+        for (int i = 0; i < common; i++) {
+            final int difference = (buffer.get(start + i) & 0xff) - (other[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length;
+    }
+
+    /**
+     * Compares as unsigned bytes, which orders UTF-8 strings by code point.
+     */
+    static int compareBytes(final byte[] left, final byte[] right) {
+        final int common = Math.min(left.length, right.length);
+        for (int i = 0; i < common; i++) {
+            final int difference = (left[i] & 0xff) - (right[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return left.length - right.length;
+    }
+
+    /**
+     * Receives the entries of a table without decoding them.
+     */
+    interface EntryVisitor {
+        /**
+         * @param key   the UTF-8 bytes of the key, between position and limit
+         * @param value the UTF-8 bytes of the value, between position and limit
+         */
+        void visit(ByteBuffer key, ByteBuffer value);
+    }
+}
@@ -0,0 +1,68 @@
+package org.codehaus.mojo.properties;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public enum ResourceType {
+
+    PROPERTIES(".properties"),
+    YAML(".yml", ".yaml");
+
+    /**
+     * Suffix that can follow any of the file extensions, marking a gzip-compressed resource.
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * The types, without the copy {@link #values()} makes on each call.
+     */
+    private static final ResourceType[] TYPES = values();
+
+    private final Set<String> fileExtensions;
+
+    ResourceType(final String... fileExtensions) {
+        this.fileExtensions = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(fileExtensions)));
+    }
+
+    public static Set<String> allFileExtensions(final ResourceType... resourceTypes) {
+        final Set<String> extensions = new HashSet<String>();
+        for (final ResourceType resourceType : resourceTypes) {
+            extensions.addAll(resourceType.fileExtensions());
+        }
+
+        return extensions;
+    }
+
+    public static ResourceType getByFileName(final String fileName) {
+        final String uncompressedName = withoutCompressionExtension(fileName);
+        for (final ResourceType resourceType : TYPES) {
+            for (final String extension : resourceType.fileExtensions()) {
+                if (uncompressedName.endsWith(extension)) {
+                    return resourceType;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public static boolean isCompressed(final String fileName) {
+        return fileName.endsWith(GZIP_EXTENSION);
+    }
+
+    public static String withoutCompressionExtension(final String fileName) {
+        return isCompressed(fileName) ? fileName.substring(0, fileName.length() - GZIP_EXTENSION.length()) : fileName;
+    }
+
+    /**
+     * @return the extensions of the type, which cannot be modified
+     */
+    public Set<String> fileExtensions() {
+        return fileExtensions;
+    }
+
+}
@@ -0,0 +1,243 @@
+package org.codehaus.mojo.properties;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Converts a yaml file into a properties.
+ */
+class YamlToPropertiesConverter {
+
+    /**
+     * Threshold disabling the parallel flattening.
+     */
+    static final long SEQUENTIAL = -1;
+
+    /**
+     * Extract a flat representation of a Yaml file into a map of key-value pairs.
+     *
+     * @param inputStream the stream holding the yaml data
+     * @return the map with key-value pairs.
+     * @throws IOException when the yaml file uses a very high-number of hierarchies, thus causing the maximum depth
+     *                     of the stack to be reached. Augmenting the allocated memory may help (see {@code -Xss} JVM
+     *                     argument.
+     */
+    static Properties convertToProperties(final InputStream inputStream)
+            throws IOException {
+        return convertToProperties(inputStream, null, SEQUENTIAL, null);
+    }
+
+    /**
+     * Extract a flat representation of the keys of a Yaml file selected by a filter. The filter is applied while the
+     * hierarchy is walked, so the subtrees it rules out are skipped as a whole.
+     * <p>
+     * The top-level subtrees of documents of at least <code>parallelThreshold</code> bytes are flattened as
+     * independent fork-join tasks, and their keys gathered in source order.
+     * <p>
+     * Each key is checked against the schema as it is emitted.
+     *
+     * @param inputStream       the stream holding the yaml data
+     * @param filter            the keys to keep, <code>null</code> for all of them
+     * @param parallelThreshold the size from which the flattening is parallel, {@link #SEQUENTIAL} for never
+     * @param validation        the schema check collecting violations, <code>null</code> for none
+     * @return the map with key-value pairs.
+     * @throws IOException when the yaml file uses a very high-number of hierarchies
+     * @see #convertToProperties(InputStream)
+     */
+    static Properties convertToProperties(final InputStream inputStream, final KeyFilter filter,
+                                          final long parallelThreshold, final ConfigSchema.Validation validation)
+            throws IOException {
+        final Properties properties = new Properties();
+        final FlightRecording.Span span = FlightRecording.start(FlightRecording.Phase.CONVERT, null);
+        final MeteredInputStream stream = new MeteredInputStream(inputStream);
+
+        final Yaml yaml = new Yaml();
+        final Object object = yaml.load(new UnicodeReader(stream));
+        if (object != null && object instanceof Map) {
+            try {
+                final Map map = (Map<String, Object>) object;
+                final KeyFilter.Walk walk = filter == null ? null : filter.start();
+                final Map<String, String> flatMap;
+                if (parallelThreshold != SEQUENTIAL && stream.getBytes() >= parallelThreshold && map.size() > 1
+                        && Runtime.getRuntime().availableProcessors() > 1) {
+                    flatMap = ParallelFlattening.POOL.invoke(new FlattenTask(
+                            new ArrayList<Map.Entry<String, Object>>(map.entrySet()), 0, map.size(), walk));
+                } else {
+                    flatMap = flattenMap(map, walk);
+                }
+                for (final Map.Entry<String, String> entry : flatMap.entrySet()) {
+                    properties.put(entry.getKey(), entry.getValue());
+                    if (validation != null) {
+                        validation.check(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (final StackOverflowError e) {
+                throw new IOException("The Yaml file has too many hierarchies", e);
+            }
+        }
+
+        span.end(stream.getBytes(), properties.size());
+        return properties;
+    }
+
+    private static Map<String, String> flattenMap(final Map mapOfObjects, final KeyFilter.Walk walk) {
+        final Map<String, Object> mapOfMaps = toHierarchicalMap(mapOfObjects, walk);
+        return toPropertiesMap(mapOfMaps);
+    }
+
+    private static Map<String, String> toPropertiesMap(final Map<String, Object> mapOfMaps) {
+        final Map<String, Object> flattenedMap = toFlatMap(mapOfMaps);
+
+        final Map<String, String> propertiesMap = new LinkedHashMap<String, String>();
+        for (final Map.Entry<String, Object> entry : flattenedMap.entrySet()) {
+            propertiesMap.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+
+        return propertiesMap;
+    }
+
+    private static Map<String, Object> toHierarchicalMap(final Object content, final KeyFilter.Walk walk) {
+        final Map<String, Object> dataMap = new LinkedHashMap<String, Object>();
+
+        for (final Map.Entry<String, Object> entry : ((Map<String, Object>) content).entrySet()) {
+            toHierarchicalEntry(dataMap, entry.getKey(), entry.getValue(), walk);
+        }
+
+        return dataMap;
+    }
+
+    private static void toHierarchicalEntry(final Map<String, Object> dataMap, final String key, final Object value,
+                                            final KeyFilter.Walk walk) {
+        if (walk == null) {
+            toHierarchicalValue(dataMap, key, value, null);
+            return;
+        }
+
+        final KeyFilter.Walk child = walk.child(key);
+        if (child == null) {
+            return;
+        }
+
+        if (child.relativeKey() == null) {
+            // still on the way to the root path: its content is lifted to the top
+            if (value instanceof Map) {
+                dataMap.putAll(toHierarchicalMap(value, child));
+            }
+        } else if (value instanceof Map || child.isSelected()) {
+            // a key crossing the root path only keeps its segments below it
+            toHierarchicalValue(dataMap, walk.relativeKey() == null ? child.relativeKey() : key, value, child);
+        }
+    }
+
+    private static void toHierarchicalValue(Map<String, Object> dataMap, String key, Object value,
+                                            KeyFilter.Walk walk) {
+        if (value instanceof Map) {
+            final Map<String, Object> nestedMap = toHierarchicalMap(value, walk);
+            if (walk == null || !nestedMap.isEmpty()) {
+                dataMap.put(key, nestedMap);
+            }
+        } else if (value instanceof Collection) {
+            for (final Object element : ((Collection) value)) {
+                toHierarchicalValue(dataMap, key, element, walk);
+            }
+        } else if (walk != null && !walk.isSelected()) {
+            return;
+        } else {
+            dataMap.put(key, value == null ? "" : value);
+        }
+    }
+
+    private static Map<String, Object> toFlatMap(final Map<String, Object> source) {
+        final Map<String, Object> flattenedMap = new LinkedHashMap<String, Object>();
+
+        for (final String key : source.keySet()) {
+            final Object value = source.get(key);
+
+            if (value instanceof Map) {
+                final Map<String, Object> nestedMap = toFlatMap((Map<String, Object>) value);
+
+                for (final String nestedKey : nestedMap.keySet()) {
+                    flattenedMap.put(String.format("%s.%s", key, nestedKey), nestedMap.get(nestedKey));
+                }
+            } else if (value instanceof Collection) {
+                final StringBuilder stringBuilder = new StringBuilder();
+
+                boolean firstElement = true;
+                for (final Object element : ((Collection) value)) {
+                    final Map<String, Object> subMap = toFlatMap(Collections.singletonMap(key, element));
+                    if (firstElement) {
+                        stringBuilder.append(",");
+                    }
+
+                    stringBuilder.append(subMap.entrySet().iterator().next().getValue().toString());
+                    firstElement = false;
+                }
+
+                flattenedMap.put(key, stringBuilder.toString());
+            } else {
+                flattenedMap.put(key, value == null ? "" : value);
+            }
+        }
+
+        return flattenedMap;
+    }
+
+    /**
+     * Flattens a range of top-level entries, splitting it in halves down to single entries. The keys of the first
+     * half precede those of the second, so the result follows the source order.
+     */
+    private static class FlattenTask
+            extends RecursiveTask<Map<String, String>> {
+        private final List<Map.Entry<String, Object>> entries;
+
+        private final int from;
+
+        private final int to;
+
+        private final KeyFilter.Walk walk;
+
+        FlattenTask(final List<Map.Entry<String, Object>> entries, final int from, final int to,
+                    final KeyFilter.Walk walk) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.walk = walk;
+        }
+
+        protected Map<String, String> compute() {
+            if (to - from == 1) {
+                final Map.Entry<String, Object> entry = entries.get(from);
+                final Map<String, Object> dataMap = new LinkedHashMap<String, Object>();
+                toHierarchicalEntry(dataMap, entry.getKey(), entry.getValue(), walk);
+                return toPropertiesMap(dataMap);
+            }
+
+            final int middle = (from + to) >>> 1;
+            final FlattenTask second = new FlattenTask(entries, middle, to, walk);
+            second.fork();
+            final Map<String, String> result = new FlattenTask(entries, from, middle, walk).compute();
+            result.putAll(second.join());
+            return result;
+        }
+    }
+
+    /**
+     * Holds the pool shared by the parallel conversions, created on first use.
+     */
+    private static class ParallelFlattening {
+        private static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
@@ -0,0 +1,77 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the plugin phases. Only loaded through {@link FlightRecorderSpans}, once
+ * {@link FlightRecording} has checked that a recording is running.
+ */
+@Category({"Maven", "Yaml Properties"})
+@StackTrace(false)
+abstract class FlightRecorderEvent
+        extends Event {
+
+    @Label("Resource")
+    @Description("File, URL, project or output file the phase worked on")
+    String resource;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Keys")
+    long keys;
+
+    @Name("org.codehaus.mojo.properties.Load")
+    @Label("Load Properties")
+    @Description("Reading a resource into the project properties")
+    static class Load
+            extends FlightRecorderEvent {
+    }
+
+    @Name("org.codehaus.mojo.properties.Convert")
+    @Label("Convert Yaml")
+    @Description("Flattening a Yaml document into properties")
+    static class Convert
+            extends FlightRecorderEvent {
+    }
+
+    @Name("org.codehaus.mojo.properties.Resolve")
+    @Label("Resolve Placeholders")
+    @Description("Resolving the placeholders of the project properties")
+    static class Resolve
+            extends FlightRecorderEvent {
+    }
+
+    @Name("org.codehaus.mojo.properties.Write")
+    @Label("Write Properties")
+    @Description("Storing properties into a file")
+    static class Write
+            extends FlightRecorderEvent {
+    }
+}
@@ -0,0 +1,65 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Starts the flight recorder events of the plugin phases. Only loaded through {@link FlightRecording}, once a
+ * recording is running.
+ */
+class FlightRecorderSpans
+        implements FlightRecording.Recorder {
+
+    public FlightRecording.Span start(final FlightRecording.Phase phase, final String resource) {
+        return new EventSpan(phase, resource);
+    }
+
+    private static class EventSpan
+            extends FlightRecording.Span {
+        private final FlightRecorderEvent event;
+
+        EventSpan(final FlightRecording.Phase phase, final String resource) {
+            switch (phase) {
+                case LOAD:
+                    event = new FlightRecorderEvent.Load();
+                    break;
+                case CONVERT:
+                    event = new FlightRecorderEvent.Convert();
+                    break;
+                case RESOLVE:
+                    event = new FlightRecorderEvent.Resolve();
+                    break;
+                default:
+                    event = new FlightRecorderEvent.Write();
+                    break;
+            }
+            event.resource = resource;
+            event.begin();
+        }
+
+        void end(final long bytes, final long keys) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.bytes = bytes;
+                event.keys = keys;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConfigLoader loader = new ConfigLoader();
+
+    @Test
+    public void laterFilesOverrideEarlierOnesBeforeResolution()
+            throws Exception {
+        // Arrange
+        final File yaml = folder.newFile("application.yml");
+        FileUtils.writeLines(yaml, Arrays.asList("db:", "  host: localhost", "  url: jdbc://${db.host}/app"));
+        final File properties = folder.newFile("override.properties");
+        FileUtils.writeLines(properties, Arrays.asList("db.host=example.com"));
+
+        // Act
+        final CompiledConfig config = loader.load(yaml, properties);
+
+        // Assert
+        assertEquals(2, config.size());
+        assertEquals("jdbc://example.com/app", config.get("db.url"));
+        assertEquals("fallback", config.get("absent", "fallback"));
+        final Properties copy = config.toProperties();
+        copy.setProperty("db.host", "changed");
+        assertEquals("example.com", config.get("db.host"));
+    }
+
+    @Test
+    public void unchangedFilesAreServedFromTheCache()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile("cached.properties");
+        FileUtils.writeLines(file, Arrays.asList("key=value"));
+
+        // Act
+        final CompiledConfig first = loader.load(file);
+        final CompiledConfig second = loader.load(new File(file.getPath()));
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, loader.reload(first));
+        assertFalse(first.isStale());
+    }
+
+    @Test
+    public void changedFilesAreReloaded()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile("changing.yml");
+        FileUtils.writeLines(file, Arrays.asList("key: before"));
+        final CompiledConfig before = loader.load(file);
+
+        // Act
+        FileUtils.writeLines(file, Arrays.asList("key: after", "other: added"));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        final CompiledConfig after = loader.reload(before);
+
+        // Assert
+        assertTrue(before.isStale());
+        assertNotSame(before, after);
+        assertEquals("before", before.get("key"));
+        assertEquals("after", after.get("key"));
+        assertEquals("added", after.get("other"));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void missingFileFails()
+            throws Exception {
+        loader.load(new File(folder.getRoot(), "absent.yml"));
+    }
+}
@@ -0,0 +1,111 @@
+package org.codehaus.mojo.properties;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigSchemaTest {
+
+    @Test
+    public void emptySchemaIsNotCompiled() {
+        assertNull(ConfigSchema.compile(Collections.<String>emptyList(), "",
+                Collections.<ConfigSchema.Rule>emptyList()));
+    }
+
+    @Test
+    public void everyViolationIsListed() {
+        // Arrange
+        final ConfigSchema schema = ConfigSchema.compile(Arrays.asList("db.url", "db.user"), "[a-z.]+",
+                Arrays.asList(new ConfigSchema.Rule("db.*.port", null, "integer", null),
+                        new ConfigSchema.Rule("**.enabled", null, "boolean", null),
+                        new ConfigSchema.Rule("log.level", "[A-Z]+", null, Arrays.asList("INFO", "WARN"))));
+        final ConfigSchema.Validation validation = schema.start();
+
+        // Act
+        validation.enter("app.yml");
+        validation.check("db.url", "jdbc:h2:mem");
+        validation.check("db.main.port", "54x");
+        validation.check("db.main.replica.port", "any");
+        validation.check("db.other.port", "${port}");
+        validation.check("cache.enabled", "yes");
+        validation.check("enabled", "true");
+        validation.check("log.level", "debug");
+        validation.check("Bad_Key", "value");
+        final List<String> violations = validation.finish();
+
+        // Assert
+        assertEquals(Arrays.asList(
+                "db.main.port: '54x' is not of type integer (app.yml)",
+                "cache.enabled: 'yes' is not of type boolean (app.yml)",
+                "log.level: 'debug' does not match [A-Z]+ (app.yml)",
+                "log.level: 'debug' is not one of [INFO, WARN] (app.yml)",
+                "Bad_Key: does not match the key pattern [a-z.]+ (app.yml)",
+                "db.user: is required but missing"), violations);
+    }
+
+    @Test
+    public void overriddenValuesAreNotReported() {
+        // Arrange
+        final ConfigSchema schema = ConfigSchema.compile(Collections.<String>emptyList(), null,
+                Arrays.asList(new ConfigSchema.Rule("port", null, "integer", null),
+                        new ConfigSchema.Rule("host", "[a-z]+", null, null)));
+        final ConfigSchema.Validation validation = schema.start();
+
+        // Act
+        validation.enter("defaults.properties");
+        validation.check("port", "${port}x");
+        validation.check("port", "none");
+        validation.check("host", "localhost");
+        validation.enter("overrides.properties");
+        validation.check("port", "8080");
+        validation.check("host", "Example");
+
+        // Assert
+        assertEquals(Collections.singletonList("host: 'Example' does not match [a-z]+ (overrides.properties)"),
+                validation.finish());
+    }
+
+    @Test
+    public void yamlEntriesAreCheckedWhileConverted()
+            throws Exception {
+        // Arrange
+        final ConfigSchema schema = ConfigSchema.compile(Collections.singletonList("server.host"), null,
+                Collections.singletonList(new ConfigSchema.Rule("server.port", null, "number", null)));
+        final ConfigSchema.Validation validation = schema.start();
+        final byte[] yaml = "server:\n  port: eighty\n  name: demo\n".getBytes("UTF-8");
+
+        // Act
+        final Properties properties = YamlToPropertiesConverter.convertToProperties(new ByteArrayInputStream(yaml),
+                null, YamlToPropertiesConverter.SEQUENTIAL, validation);
+
+        // Assert
+        assertEquals(2, properties.size());
+        assertEquals(Arrays.asList("server.port: 'eighty' is not of type number",
+                "server.host: is required but missing"), validation.finish());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownTypeIsRejected() {
+        new ConfigSchema.Rule("key", null, "date", null);
+    }
+
+    @Test
+    public void invalidPatternIsReported() {
+        try {
+            ConfigSchema.compile(Collections.<String>emptyList(), "[a-z",
+                    Collections.<ConfigSchema.Rule>emptyList());
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid key pattern '[a-z'"));
+            return;
+        }
+        throw new AssertionError("Invalid pattern accepted");
+    }
+}
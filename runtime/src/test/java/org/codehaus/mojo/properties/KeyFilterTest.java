@@ -0,0 +1,99 @@
+package org.codehaus.mojo.properties;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class KeyFilterTest {
+
+    private static final String YAML = ""
+            + "spring:\n"
+            + "  datasource:\n"
+            + "    url: jdbc:h2:mem\n"
+            + "    hikari:\n"
+            + "      pool: 5\n"
+            + "  jpa.show-sql: true\n"
+            + "server:\n"
+            + "  port: 8080\n"
+            + "  secret: hidden\n"
+            + "logging:\n"
+            + "  level:\n"
+            + "    root: INFO\n"
+            + "    org.acme: DEBUG\n";
+
+    @Test
+    public void noSelectionCompilesToNothing() {
+        assertNull(KeyFilter.compile(null, new String[0], null));
+    }
+
+    @Test
+    public void patternsSelectWholeSubtrees() {
+        final KeyFilter filter = KeyFilter.compile(null, new String[]{"spring.datasource", "server.*"},
+                new String[]{"**.secret"});
+
+        assertEquals("spring.datasource.url", filter.apply("spring.datasource.url"));
+        assertEquals("spring.datasource.hikari.pool", filter.apply("spring.datasource.hikari.pool"));
+        assertEquals("server.port", filter.apply("server.port"));
+        assertNull(filter.apply("server.secret"));
+        assertNull(filter.apply("spring.jpa.show-sql"));
+        assertNull(filter.apply("server"));
+    }
+
+    @Test
+    public void anySegmentsMatchesAtAnyDepth() {
+        final KeyFilter filter = KeyFilter.compile(null, new String[]{"**.pool"}, null);
+
+        assertEquals("spring.datasource.hikari.pool", filter.apply("spring.datasource.hikari.pool"));
+        assertEquals("pool", filter.apply("pool"));
+        assertNull(filter.apply("spring.datasource.url"));
+    }
+
+    @Test
+    public void rootPathIsRemovedFromKeys() {
+        final KeyFilter filter = KeyFilter.compile("spring", new String[]{"datasource.*"}, null);
+
+        assertEquals("datasource.url", filter.apply("spring.datasource.url"));
+        assertNull(filter.apply("spring"));
+        assertNull(filter.apply("springs.datasource.url"));
+        assertNull(filter.apply("server.port"));
+    }
+
+    @Test
+    public void yamlSubtreesAreSelectedWhileWalking()
+            throws Exception {
+        final Properties properties = convert(KeyFilter.compile(null,
+                new String[]{"spring.jpa", "logging.level.*"}, new String[]{"logging.level.org"}));
+
+        assertEquals(2, properties.size());
+        assertEquals("true", properties.getProperty("spring.jpa.show-sql"));
+        assertEquals("INFO", properties.getProperty("logging.level.root"));
+    }
+
+    @Test
+    public void yamlRootPathCrossesDottedKeys()
+            throws Exception {
+        final Properties properties = convert(KeyFilter.compile("spring.jpa", null, null));
+
+        assertEquals(1, properties.size());
+        assertEquals("true", properties.getProperty("show-sql"));
+    }
+
+    @Test
+    public void yamlRootPathLiftsItsSubtree()
+            throws Exception {
+        final Properties properties = convert(KeyFilter.compile("spring.datasource", null, new String[]{"hikari"}));
+
+        assertEquals(1, properties.size());
+        assertEquals("jdbc:h2:mem", properties.getProperty("url"));
+    }
+
+    private static Properties convert(final KeyFilter filter)
+            throws Exception {
+        return YamlToPropertiesConverter.convertToProperties(new ByteArrayInputStream(YAML.getBytes("UTF-8")),
+                filter, YamlToPropertiesConverter.SEQUENTIAL, null);
+    }
+}
@@ -0,0 +1,148 @@
+package org.codehaus.mojo.properties;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the parser against {@link Properties#load(java.io.InputStream)}, on the corner cases of the format and on
+ * random inputs made of its significant characters. The inputs the readers of Java 8 and of later releases disagree
+ * on are checked against fixed results instead.
+ */
+public class PropertiesParserTest {
+
+    private static final String[] TOKENS = {" ", "\t", "\f", "\r", "\n", "\r\n", "\\", "=", ":", "#", "!", "a", "key",
+            "value", "\\u00e9", "\\u20AC", "\u00e9", "\\n", "\\t", "\\r", "\\f", "\\x", "\\\\"};
+
+    /**
+     * The lines on which the readers of Java 8 and of later releases disagree: a comment line ending with a backslash,
+     * which Java 8 lets leak into the next line, and a continuation line starting with a comment character.
+     */
+    private static final Pattern JAVA_8_DIVERGENCE =
+            Pattern.compile("[#!][^\r\n]*\\\\[\r\n]|\\\\[\r\n]+[ \t\f]*[#!]");
+
+    @Test
+    public void cornerCasesMatchPropertiesLoad()
+            throws IOException {
+        assertSameAsPropertiesLoad("a=1\nb:2\nc 3\nd\t4\ne\f5\n");
+        assertSameAsPropertiesLoad("  # comment\n! other comment\n   spaced   =   value  \n");
+        assertSameAsPropertiesLoad("key = = value\nkey2 : : value\nkey3 value = more\nkey4\n=\n:\n");
+        assertSameAsPropertiesLoad("long = first \\\n     second \\\r\n\tthird\\\r  fourth\n");
+        assertSameAsPropertiesLoad("ends.with.continuation = value\\\n\nnext=1");
+        assertSameAsPropertiesLoad("escaped\\ key\\:with\\=separators = v\\\\\\\\\n");
+        assertSameAsPropertiesLoad("unicode=\\u00E9t\\u00e9 \\u20ac\ntabs=\\t\\n\\r\\f\\q\nlatin1=\u00e9\u00ff\n");
+        assertSameAsPropertiesLoad("no.newline.at.end=value\\");
+        assertSameAsPropertiesLoad("\r\n\r\n  \n\tonly=blank lines around\r\r\n");
+        assertSameAsPropertiesLoad("dup=first\ndup=second\n");
+        assertSameAsPropertiesLoad("");
+        assertSameAsPropertiesLoad("#only a comment");
+    }
+
+    @Test
+    public void randomInputsMatchPropertiesLoad()
+            throws IOException {
+        final Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int tokens = random.nextInt(40);
+            for (int token = 0; token < tokens; token++) {
+                text.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            assertSameAsPropertiesLoad(text.toString());
+        }
+    }
+
+    @Test
+    public void backslashEndingCommentDoesNotContinueIt()
+            throws IOException {
+        final Properties properties = PropertiesParser.load(stream("# comment \\\nnot.continued=1\n"));
+        assertEquals(1, properties.size());
+        assertEquals("1", properties.getProperty("not.continued"));
+    }
+
+    @Test
+    public void continuationLineStartingWithCommentCharacterIsPartOfTheValue()
+            throws IOException {
+        final Properties properties = PropertiesParser.load(stream("continued = \\\n# not a comment\n"));
+        assertEquals(1, properties.size());
+        assertEquals("# not a comment", properties.getProperty("continued"));
+    }
+
+    @Test
+    public void backslashEndingCommentDoesNotAffectNextLine()
+            throws IOException {
+        final Properties properties = PropertiesParser.load(stream("# comment \\\n\\\nkey=value\n"));
+        assertEquals(1, properties.size());
+        assertEquals("value", properties.getProperty("key"));
+    }
+
+    @Test
+    public void linesSpanningBufferBoundariesMatchPropertiesLoad()
+            throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("generated.key").append(i).append(i % 3 == 0 ? " = " : ":").append("value \\\r\n    ")
+                    .append(i).append(i % 7 == 0 ? "\\u00e9\r\n" : "\n");
+        }
+        assertSameAsPropertiesLoad(text.toString());
+    }
+
+    @Test
+    public void sinkReceivesEveryEntryInOrder()
+            throws IOException {
+        // Arrange
+        final List<String> entries = new ArrayList<String>();
+
+        // Act
+        PropertiesParser.parse(stream("b=1\na=2\nb=3\n"), new PropertiesParser.Sink() {
+            public void property(final String key, final String value) {
+                entries.add(key + "=" + value);
+            }
+        });
+
+        // Assert
+        assertEquals(Arrays.asList("b=1", "a=2", "b=3"), entries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedUnicodeEscapeFails()
+            throws IOException {
+        PropertiesParser.load(stream("key=\\u00g9\n"));
+    }
+
+    /**
+     * Compares with the running JDK, unless the input is one Java 8 reads differently.
+     */
+    private static void assertSameAsPropertiesLoad(final String text)
+            throws IOException {
+        if (JAVA_8_DIVERGENCE.matcher(text).find()) {
+            return;
+        }
+
+        final Properties expected = new Properties();
+        expected.load(stream(text));
+        assertEquals(escape(text), expected, PropertiesParser.load(stream(text)));
+    }
+
+    private static String escape(final String text) {
+        final StringBuilder escaped = new StringBuilder();
+        for (final char c : text.toCharArray()) {
+            escaped.append(c < ' ' || c > '~' ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+
+    private static ByteArrayInputStream stream(final String text)
+            throws IOException {
+        return new ByteArrayInputStream(text.getBytes("ISO-8859-1"));
+    }
+}
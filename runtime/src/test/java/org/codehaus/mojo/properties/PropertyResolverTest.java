@@ -130,6 +130,74 @@ public class PropertyResolverTest {
         assertNull(value6);
     }
 
+    @Test
+    public void defaultIsUsedForUnknownKeysOnly() {
+        Properties properties = new Properties();
+        properties.setProperty("port", "8080");
+        properties.setProperty("p1", "${port:80}");
+        properties.setProperty("p2", "${unknown:80}");
+        properties.setProperty("p3", "${unknown:}");
+        properties.setProperty("p4", "${unknown:http://${host:localhost}:${port}/}");
+        properties.setProperty("p5", "${port:${p5}}");
+
+        assertEquals("8080", resolver.getPropertyValue("p1", properties, null));
+        assertEquals("80", resolver.getPropertyValue("p2", properties, null));
+        assertEquals("", resolver.getPropertyValue("p3", properties, null));
+        assertEquals("http://localhost:8080/", resolver.getPropertyValue("p4", properties, null));
+        assertEquals("8080", resolver.getPropertyValue("p5", properties, null));
+    }
+
+    @Test
+    public void nestedPlaceholdersAreResolved() {
+        Properties properties = new Properties();
+        properties.setProperty("env", "prod");
+        properties.setProperty("db.prod.url", "jdbc:prod");
+        properties.setProperty("p1", "${db.${env}.url}");
+        properties.setProperty("p2", "${db.${other}.url}");
+        properties.setProperty("p3", "${db.${other:prod}.url}");
+        properties.setProperty("p4", "${db.${env}.user:${env}-user}");
+
+        assertEquals("jdbc:prod", resolver.getPropertyValue("p1", properties, null));
+        assertEquals("${db.${other}.url}", resolver.getPropertyValue("p2", properties, null));
+        assertEquals("jdbc:prod", resolver.getPropertyValue("p3", properties, null));
+        assertEquals("prod-user", resolver.getPropertyValue("p4", properties, null));
+    }
+
+    @Test
+    public void propertyReferencedTwiceIsNotCircular() {
+        Properties properties = new Properties();
+        properties.setProperty("host", "localhost");
+        properties.setProperty("url", "${host}/${host}");
+        properties.setProperty("p1", "${url}-${url}");
+
+        assertEquals("localhost/localhost-localhost/localhost", resolver.getPropertyValue("p1", properties, null));
+    }
+
+    @Test
+    public void nestedCircularDefinitionIsIllegal() {
+        Properties properties = new Properties();
+        properties.setProperty("p1", "${key.${p2}}");
+        properties.setProperty("p2", "${p1}");
+
+        try {
+            resolver.getPropertyValue("p1", properties, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("p2=${p1}"));
+        }
+    }
+
+    @Test
+    public void unclosedNestedPlaceholderIsLeftAsIs() {
+        Properties properties = new Properties();
+        properties.setProperty("env", "prod");
+        properties.setProperty("p1", "a ${db.${env}.url");
+        properties.setProperty("p2", "${env}:} ${");
+
+        assertEquals("a ${db.${env}.url", resolver.getPropertyValue("p1", properties, null));
+        assertEquals("prod:} ${", resolver.getPropertyValue("p2", properties, null));
+    }
+
     @Test
     public void valueIsObtainedFromSystemProperty()
             throws MojoFailureException {
@@ -0,0 +1,106 @@
+package org.codehaus.mojo.properties;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyTableTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void lookupOnHeap() {
+        assertLookups(false);
+    }
+
+    @Test
+    public void lookupOffHeap() {
+        assertLookups(true);
+    }
+
+    @Test
+    public void entriesAreIteratedInUtf8KeyOrderWithoutDecoding() {
+        // Arrange
+        final PropertyTable table = PropertyTable.of(properties(), Arrays.asList("é", "b", "a.b", "a"), true);
+        final List<String> keys = new ArrayList<String>();
+
+        // Act
+        table.forEach(new PropertyTable.EntryVisitor() {
+            public void visit(final ByteBuffer key, final ByteBuffer value) {
+                assertTrue(key.isReadOnly());
+                keys.add(UTF_8.decode(key).toString());
+            }
+        });
+
+        // Assert
+        assertEquals(Arrays.asList("a", "a.b", "b", "é"), keys);
+    }
+
+    @Test
+    public void entriesAreReadByPosition() {
+        // Arrange
+        final PropertyTable table = PropertyTable.of(properties(), Arrays.asList("é", "b", "a"), true);
+
+        // Act
+        final List<String> entries = new ArrayList<String>();
+        for (int i = 0; i < table.size(); i++) {
+            entries.add(new String(table.keyAt(i), UTF_8) + "=" + new String(table.valueAt(i), UTF_8));
+        }
+
+        // Assert
+        assertEquals(Arrays.asList("a=1", "b=", "é=ü ✓"), entries);
+    }
+
+    @Test
+    public void copyReplacesExistingValues() {
+        // Arrange
+        final PropertyTable table = PropertyTable.of(properties(), Arrays.asList("a", "b", "absent"), false);
+        final Properties target = new Properties();
+        target.setProperty("a", "old");
+        target.setProperty("c", "kept");
+
+        // Act
+        table.copyInto(target);
+
+        // Assert
+        assertEquals(2, table.size());
+        assertEquals(3, target.size());
+        assertEquals("1", target.getProperty("a"));
+        assertEquals("", target.getProperty("b"));
+        assertEquals("kept", target.getProperty("c"));
+    }
+
+    private static void assertLookups(final boolean direct) {
+        final Properties properties = properties();
+        final PropertyTable table = PropertyTable.of(properties, properties.stringPropertyNames(), direct);
+
+        assertEquals(direct, table.isDirect());
+        assertEquals(properties.size(), table.size());
+        for (final String key : properties.stringPropertyNames()) {
+            assertEquals(properties.getProperty(key), table.get(key));
+        }
+        assertNull(table.get("a.c"));
+        assertNull(table.get(""));
+        assertNull(table.get("zz"));
+        assertFalse(table.getSizeInBytes() == 0);
+    }
+
+    private static Properties properties() {
+        final Properties properties = new Properties();
+        properties.setProperty("a", "1");
+        properties.setProperty("a.b", "${a}.2");
+        properties.setProperty("b", "");
+        properties.setProperty("é", "ü ✓");
+        return properties;
+    }
+}
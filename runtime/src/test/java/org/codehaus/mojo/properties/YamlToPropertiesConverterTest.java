@@ -8,6 +8,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.yaml.snakeyaml.composer.ComposerException;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -111,6 +112,33 @@ public class YamlToPropertiesConverterTest {
         assertTrue(properties.getProperty("a.hierarchical.property").equals("yet another value"));
     }
 
+    @Test
+    public void testParallelConversionKeepsSourceOrder()
+            throws Exception {
+        // Arrange
+        final StringBuilder yaml = new StringBuilder();
+        for (int section = 0; section < 50; section++) {
+            yaml.append("section").append(section).append(":\n");
+            for (int key = 0; key < 20; key++) {
+                yaml.append("  group").append(key % 4).append(".key").append(key).append(": value")
+                        .append(section).append('-').append(key).append('\n');
+            }
+        }
+        yaml.append("section0.group0.key0: overridden\n");
+        final byte[] bytes = yaml.toString().getBytes("UTF-8");
+
+        // Act
+        final Properties sequential = YamlToPropertiesConverter.convertToProperties(new ByteArrayInputStream(bytes));
+        final Properties parallel = YamlToPropertiesConverter.convertToProperties(new ByteArrayInputStream(bytes),
+                null, 0, null);
+
+        // Assert
+        assertEquals(1000, parallel.size());
+        assertEquals(sequential, parallel);
+        assertEquals("overridden", parallel.getProperty("section0.group0.key0"));
+        assertEquals("value49-19", parallel.getProperty("section49.group3.key19"));
+    }
+
     @Test
     public void testConvertToPropertiesFailsOnNewDocument()
             throws Exception {
@@ -19,6 +19,7 @@ package org.codehaus.mojo.properties;
  * under the License.
  */
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -28,7 +29,21 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -59,20 +74,152 @@ public abstract class AbstractWritePropertiesMojo
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     private MavenProject project;
 
-    @Parameter(required = true)
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
+    /**
+     * The file all the properties are written to. It can be left out when {@link #partitions} are given.
+     */
+    @Parameter
     private File outputFile;
 
     /**
+     * Slices of the properties written to files of their own, each with a <code>prefix</code>, an
+     * <code>outputFile</code> and optionally <code>stripPrefix</code>. A key below several prefixes is written to each
+     * of their files. The slices are taken in a single pass over the properties, and all the files are written in
+     * parallel.
+     */
+    @Parameter
+    private PropertyPartition[] partitions = new PropertyPartition[0];
+
+    /**
+     * Collects timings and counters of the execution, writes them to {@link #performanceReportFile} and logs a
+     * one-line summary.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean performanceReport;
+
+    @Parameter(defaultValue = "${project.build.directory}/yaml-properties-report.json")
+    private File performanceReportFile;
+
+    /**
+     * Writes the properties to the given file, and their slices to the files of the {@link #partitions}.
+     *
      * @param properties {@link Properties}
-     * @param file       {@link File}
+     * @param file       {@link File}, can be <code>null</code> when there are partitions
      * @throws MojoExecutionException {@link MojoExecutionException}
      */
     protected void writeProperties(Properties properties, File file)
             throws MojoExecutionException {
+        ExecutionReport report = new ExecutionReport(this);
+        long start = System.nanoTime();
+        List<Output> outputs = route(properties, file);
+        long bytes = 0;
+        if (outputs.size() == 1) {
+            bytes = store(outputs.get(0));
+        } else {
+            for (Long written : storeInParallel(outputs)) {
+                bytes += written;
+            }
+        }
+
+        for (Output output : outputs) {
+            report.keysEmitted(output.properties.size());
+        }
+        report.written(bytes, System.nanoTime() - start);
+        report.publish(getLog(), session, project, performanceReportFile, performanceReport);
+    }
+
+    /**
+     * Dispatches each key to the outputs of the prefixes it is below, looking up each of its ancestors once.
+     */
+    private List<Output> route(final Properties properties, final File file) {
+        final List<Output> outputs = new ArrayList<Output>();
+        if (file != null) {
+            outputs.add(new Output(file, properties, 0));
+        }
+        if (partitions.length == 0) {
+            return outputs;
+        }
+
+        final Map<String, List<Output>> byPrefix = new HashMap<String, List<Output>>();
+        for (final PropertyPartition partition : partitions) {
+            final String prefix = partition.getPrefix();
+            final Output output = new Output(partition.getOutputFile(), new Properties(),
+                    partition.isStripPrefix() ? prefix.length() + 1 : 0);
+            List<Output> prefixOutputs = byPrefix.get(prefix);
+            if (prefixOutputs == null) {
+                prefixOutputs = new ArrayList<Output>(1);
+                byPrefix.put(prefix, prefixOutputs);
+            }
+            prefixOutputs.add(output);
+            outputs.add(output);
+        }
+
+        for (final Map.Entry<Object, Object> entry : properties.entrySet()) {
+            if (!(entry.getKey() instanceof String)) {
+                continue;
+            }
+            final String key = (String) entry.getKey();
+            for (int dot = key.indexOf('.'); dot > 0; dot = key.indexOf('.', dot + 1)) {
+                final List<Output> prefixOutputs = byPrefix.get(key.substring(0, dot));
+                if (prefixOutputs != null) {
+                    for (final Output output : prefixOutputs) {
+                        output.properties.put(key.substring(output.stripLength), entry.getValue());
+                    }
+                }
+            }
+        }
+        return outputs;
+    }
+
+    private List<Long> storeInParallel(final List<Output> outputs)
+            throws MojoExecutionException {
+        final List<Future<Long>> futures = new ArrayList<Future<Long>>(outputs.size());
+        try {
+            for (final Output output : outputs) {
+                futures.add(Writers.POOL.submit(new Callable<Long>() {
+                    public Long call()
+                            throws MojoExecutionException {
+                        return store(output);
+                    }
+                }));
+            }
+
+            final List<Long> written = new ArrayList<Long>(futures.size());
+            for (final Future<Long> future : futures) {
+                written.add(future.get());
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while writing the properties", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) e.getCause();
+            }
+            throw new MojoExecutionException("Error writing properties: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // only does something when interrupted or failed, stopping the writes still running
+            for (final Future<Long> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    private long store(final Output output)
+            throws MojoExecutionException {
+        final File file = output.file;
+        final FlightRecording.Span span = FlightRecording.start(FlightRecording.Phase.WRITE, file.getPath());
         FileOutputStream fos = null;
+        ExecutionReport.CountingOutputStream counter = null;
         try {
             fos = new FileOutputStream(file);
-            properties.store(fos, "Properties");
+            counter = new ExecutionReport.CountingOutputStream(fos);
+            output.properties.store(counter, "Properties");
         } catch (FileNotFoundException e) {
             getLog().error("Could not create FileOutputStream: " + fos);
             throw new MojoExecutionException(e.getMessage(), e);
@@ -82,11 +229,14 @@ public abstract class AbstractWritePropertiesMojo
         }
 
         try {
-            fos.close();
+            counter.close();
         } catch (IOException e) {
             getLog().error("Error closing FileOutputStream: " + fos);
             throw new MojoExecutionException(e.getMessage(), e);
         }
+
+        span.end(counter.getBytes(), output.properties.size());
+        return counter.getBytes();
     }
 
     /**
@@ -94,12 +244,35 @@ public abstract class AbstractWritePropertiesMojo
      */
     protected void validateOutputFile()
             throws MojoExecutionException {
-        if (outputFile.isDirectory()) {
-            throw new MojoExecutionException("outputFile must be a file and not a directory");
+        if (outputFile == null && partitions.length == 0) {
+            throw new MojoExecutionException("outputFile or partitions must be given");
+        }
+
+        final Set<File> files = new HashSet<File>();
+        if (outputFile != null) {
+            validateOutputFile(outputFile, "outputFile");
+            files.add(outputFile.getAbsoluteFile());
+        }
+        for (final PropertyPartition partition : partitions) {
+            if (partition.getPrefix() == null || partition.getPrefix().length() == 0
+                    || partition.getOutputFile() == null) {
+                throw new MojoExecutionException("Each partition needs a prefix and an outputFile: " + partition);
+            }
+            validateOutputFile(partition.getOutputFile(), "The outputFile of each partition");
+            if (!files.add(partition.getOutputFile().getAbsoluteFile())) {
+                throw new MojoExecutionException(partition.getOutputFile() + " is written more than once");
+            }
+        }
+    }
+
+    private static void validateOutputFile(final File file, final String name)
+            throws MojoExecutionException {
+        if (file.isDirectory()) {
+            throw new MojoExecutionException(name + " must be a file and not a directory");
         }
         // ensure path exists
-        if (outputFile.getParentFile() != null) {
-            outputFile.getParentFile().mkdirs();
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
         }
     }
 
@@ -117,4 +290,84 @@ public abstract class AbstractWritePropertiesMojo
         return outputFile;
     }
 
+    /**
+     * @return the files the properties are written to, {@link #outputFile} when given then the files of the
+     * {@link #partitions}
+     */
+    protected List<File> getOutputFiles() {
+        final List<File> files = new ArrayList<File>(partitions.length + 1);
+        if (outputFile != null) {
+            files.add(outputFile);
+        }
+        for (final PropertyPartition partition : partitions) {
+            files.add(partition.getOutputFile());
+        }
+        return files;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param project    The test project.
+     * @param outputFile The file the properties are written to.
+     */
+    void configure(final MavenProject project, final File outputFile) {
+        this.project = project;
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param partitions The slices written to files of their own.
+     */
+    void setPartitions(final PropertyPartition... partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * The threads writing the files of the partitions, shared by all the executions so that a goal writing on every
+     * change, such as watch, does not start new threads each time. Created on the first parallel write, its daemon
+     * threads stop after a minute without writes.
+     */
+    private static final class Writers {
+        private static final ExecutorService POOL = newPool();
+
+        private static ExecutorService newPool() {
+            final int threads = Runtime.getRuntime().availableProcessors();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private int count;
+
+                        public synchronized Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "yaml-properties-write-" + (++count));
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Properties and the file they are written to.
+     */
+    private static final class Output {
+        private final File file;
+
+        private final Properties properties;
+
+        /**
+         * The length of the prefix removed from the keys, 0 when kept.
+         */
+        private final int stripLength;
+
+        private Output(final File file, final Properties properties, final int stripLength) {
+            this.file = file;
+            this.properties = properties;
+            this.stripLength = stripLength;
+        }
+    }
+
 }
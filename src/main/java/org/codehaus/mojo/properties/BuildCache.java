@@ -0,0 +1,106 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Values kept for the length of a build and shared by all its projects, including the sessions Maven clones for each
+ * module of a parallel build.
+ * <p>
+ * Every session of a build returns the start time instance held by the build request, so the values are keyed by that
+ * instance, compared by identity and weakly referenced: two builds started within the same millisecond, such as two
+ * embedded builds, never see each other's values, and the values go away with the build request instead of living as
+ * long as the plugin class loader, which a build daemon keeps from one build to the next.
+ *
+ * @param <V> the type of the values
+ */
+abstract class BuildCache<V> {
+
+    private final Map<BuildKey, V> values = new HashMap<BuildKey, V>();
+
+    private final ReferenceQueue<Date> endedBuilds = new ReferenceQueue<Date>();
+
+    /**
+     * @param session the build session, can be <code>null</code> when running outside a build
+     * @return the value of the build, created on first use, or <code>null</code> when running outside a build
+     */
+    V get(final MavenSession session) {
+        if (session == null || session.getStartTime() == null) {
+            return null;
+        }
+
+        final Date startTime = session.getStartTime();
+        synchronized (values) {
+            for (Reference<? extends Date> ended = endedBuilds.poll(); ended != null; ended = endedBuilds.poll()) {
+                values.remove(ended);
+            }
+
+            V value = values.get(new BuildKey(startTime, null));
+            if (value == null) {
+                value = newValue();
+                values.put(new BuildKey(startTime, endedBuilds), value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return the value of a build starting to use this cache
+     */
+    protected abstract V newValue();
+
+    /**
+     * Weak reference to a build start time, equal to the references to the same instance.
+     */
+    private static final class BuildKey extends WeakReference<Date> {
+        private final int hash;
+
+        private BuildKey(final Date startTime, final ReferenceQueue<Date> queue) {
+            super(startTime, queue);
+            this.hash = System.identityHashCode(startTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof BuildKey)) {
+                return false;
+            }
+
+            final Date startTime = get();
+            return startTime != null && startTime == ((BuildKey) other).get();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Answers <code>classpath:</code> lookups against a project classpath with a single hash lookup. The entry names of
+ * every archive are read once per build and shared by all the projects of the build that depend on it; directories,
+ * which may still change during the build, are checked on the file system. Instances are immutable and thread safe.
+ * <p>
+ * The caches are kept for the length of the build in a {@link BuildCache}, and archives are known by their size and
+ * modification time as well as their path, so that an archive rebuilt during the build is read again.
+ */
+class ClasspathIndex {
+
+    private static final BuildCache<SessionCache> CACHES = new BuildCache<SessionCache>() {
+        @Override
+        protected SessionCache newValue() {
+            return new SessionCache();
+        }
+    };
+
+    private final SessionCache cache;
+
+    private final List<File> archives = new ArrayList<File>();
+
+    private final List<File> directories = new ArrayList<File>();
+
+    /**
+     * Position of each directory in the classpath, the archive positions being implied by {@link #archives}.
+     */
+    private final List<Integer> directoryPositions = new ArrayList<Integer>();
+
+    private final List<Integer> archivePositions = new ArrayList<Integer>();
+
+    /**
+     * For each resource, the index in {@link #archives} of the first archive holding it.
+     */
+    private final Map<String, Integer> firstArchive = new HashMap<String, Integer>();
+
+    private ClasspathIndex(final SessionCache cache, final List<String> elements)
+            throws IOException {
+        this.cache = cache;
+        for (int position = 0; position < elements.size(); position++) {
+            final File element = new File(elements.get(position));
+            if (element.isDirectory()) {
+                directories.add(element);
+                directoryPositions.add(position);
+            } else if (element.isFile()) {
+                final Integer archive = archives.size();
+                archives.add(element);
+                archivePositions.add(position);
+                for (final String entry : cache.entriesOf(element)) {
+                    if (!firstArchive.containsKey(entry)) {
+                        firstArchive.put(entry, archive);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param session  the build session, can be <code>null</code> when running outside a build, in which case nothing
+     *                 is shared
+     * @param elements the classpath, as returned by <code>MavenProject.getRuntimeClasspathElements()</code>
+     * @return the index of the classpath, built on first use in the session
+     * @throws IOException when one of the archives cannot be read
+     */
+    static ClasspathIndex forClasspath(final MavenSession session, final List<String> elements)
+            throws IOException {
+        final List<String> classpath = new ArrayList<String>(elements.size());
+        final List<String> key = new ArrayList<String>(elements.size());
+        for (final String element : elements) {
+            if (element != null) {
+                classpath.add(element);
+                key.add(SessionCache.versionOf(new File(element)));
+            }
+        }
+
+        final SessionCache cache = cache(session);
+        ClasspathIndex index = cache.indexes.get(key);
+        if (index == null) {
+            index = new ClasspathIndex(cache, classpath);
+            final ClasspathIndex existing = cache.indexes.putIfAbsent(key, index);
+            if (existing != null) {
+                index = existing;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Looks a resource up on a plugin class loader, remembering for the rest of the session the resources it does not
+     * hold. Projects with different plugin dependencies have different class loaders, so the misses of one never hide
+     * the resources of another.
+     *
+     * @param classLoader the plugin class loader
+     * @param resource    the resource name, without leading slash
+     * @return the resource URL, or <code>null</code> when absent
+     */
+    URL findOnPluginClassLoader(final ClassLoader classLoader, final String resource) {
+        final Set<String> misses = cache.missesOf(classLoader);
+        if (misses.contains(resource)) {
+            return null;
+        }
+
+        final URL url = classLoader.getResource(resource);
+        if (url == null) {
+            misses.add(resource);
+        }
+
+        return url;
+    }
+
+    /**
+     * @param resource the resource name, without leading slash
+     * @return the URL of the first classpath element holding the resource, or <code>null</code> when absent
+     */
+    URL find(final String resource) {
+        final Integer archive = firstArchive.get(resource);
+        final int archivePosition = archive == null ? Integer.MAX_VALUE : archivePositions.get(archive);
+
+        try {
+            for (int i = 0; i < directories.size() && directoryPositions.get(i) < archivePosition; i++) {
+                final File file = new File(directories.get(i), resource);
+                if (file.isFile()) {
+                    return file.toURI().toURL();
+                }
+            }
+
+            if (archive == null) {
+                return null;
+            }
+
+            return new URL("jar:" + archives.get(archive).toURI() + "!/" + resource);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Cannot build an URL for " + resource, e);
+        }
+    }
+
+    private static SessionCache cache(final MavenSession session) {
+        final SessionCache cache = CACHES.get(session);
+        return cache == null ? new SessionCache() : cache;
+    }
+
+    private static Set<String> readEntries(final File archive)
+            throws IOException {
+        final ZipFile zipFile = new ZipFile(archive);
+        try {
+            final Set<String> entries = new HashSet<String>(zipFile.size() * 4 / 3 + 1);
+            for (final Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+                final ZipEntry entry = e.nextElement();
+                if (!entry.isDirectory()) {
+                    entries.add(entry.getName());
+                }
+            }
+            return Collections.unmodifiableSet(entries);
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    /**
+     * What the projects of a build share.
+     */
+    private static final class SessionCache {
+        /**
+         * Indexes by classpath, so the modules of a reactor sharing the same dependencies share the same index.
+         */
+        private final ConcurrentMap<List<String>, ClasspathIndex> indexes =
+                new ConcurrentHashMap<List<String>, ClasspathIndex>();
+
+        /**
+         * Entry names by archive, keyed by path, size and modification time.
+         */
+        private final ConcurrentMap<String, Set<String>> archiveEntries = new ConcurrentHashMap<String, Set<String>>();
+
+        /**
+         * Resources known to be absent, by plugin class loader.
+         */
+        private final Map<ClassLoader, Set<String>> misses = new WeakHashMap<ClassLoader, Set<String>>();
+
+        private static String versionOf(final File element) {
+            return element.isFile()
+                    ? element.getAbsolutePath() + '|' + element.length() + '|' + element.lastModified()
+                    : element.getAbsolutePath();
+        }
+
+        private Set<String> entriesOf(final File archive)
+                throws IOException {
+            final String key = versionOf(archive);
+            Set<String> entries = archiveEntries.get(key);
+            if (entries == null) {
+                entries = readEntries(archive);
+                final Set<String> existing = archiveEntries.putIfAbsent(key, entries);
+                if (existing != null) {
+                    entries = existing;
+                }
+            }
+
+            return entries;
+        }
+
+        private Set<String> missesOf(final ClassLoader classLoader) {
+            synchronized (misses) {
+                Set<String> classLoaderMisses = misses.get(classLoader);
+                if (classLoaderMisses == null) {
+                    classLoaderMisses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                    misses.put(classLoader, classLoaderMisses);
+                }
+                return classLoaderMisses;
+            }
+        }
+    }
+}
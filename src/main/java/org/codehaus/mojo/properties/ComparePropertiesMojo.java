@@ -0,0 +1,496 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The compare-properties goal reads two or more sets of files, resolving each set like
+ * <code>read-project-properties</code> does, and reports the keys each set adds, removes or changes compared to the
+ * first one, the baseline. The sets are then compared in a single merge over all of them, in key order.
+ * <p>
+ * A placeholder can refer to any key of its set, so a set is only resolved once all its files are read. Each resolved
+ * set is then written in key order to a run file, next to the report, and released before the next set is read, and
+ * the merge streams the run files, holding a single entry of each set. Memory is thus bound by the largest set, held
+ * twice as {@link java.util.Properties}, as read and as resolved, then as a compact table costing the UTF-8 bytes of
+ * its keys and values plus 8 bytes per entry.
+ */
+@Mojo(name = "compare-properties", defaultPhase = LifecyclePhase.NONE, threadSafe = true)
+public class ComparePropertiesMojo
+        extends AbstractMojo {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String TEXT = "text";
+
+    private static final String JSON = "json";
+
+    /**
+     * The sets to compare, each with an <code>id</code> and its <code>files</code>. The first set is the baseline the
+     * others are compared to.
+     */
+    @Parameter(required = true)
+    private PropertySet[] sets = new PropertySet[0];
+
+    /**
+     * The format of the report: <code>text</code> or <code>json</code>.
+     */
+    @Parameter(defaultValue = TEXT)
+    private String format = TEXT;
+
+    @Parameter(defaultValue = "${project.build.directory}/properties-comparison.txt", required = true)
+    private File outputFile;
+
+    /**
+     * Fails the build when a set differs from the baseline.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean failOnDifference;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute()
+            throws MojoExecutionException, MojoFailureException {
+        checkParameters();
+
+        final File directory = outputFile.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+
+        final List<File> runFiles = new ArrayList<File>(sets.length);
+        final Summary[] summaries = new Summary[sets.length];
+        try {
+            for (final PropertySet set : sets) {
+                runFiles.add(spill(set, directory));
+            }
+
+            compare(runFiles, summaries);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error comparing the property sets", e);
+        } finally {
+            for (final File runFile : runFiles) {
+                runFile.delete();
+            }
+        }
+
+        boolean different = false;
+        for (int i = 1; i < summaries.length; i++) {
+            getLog().info(String.format("%s compared to %s: %s", sets[i].getId(), sets[0].getId(), summaries[i]));
+            different |= summaries[i].differences() > 0;
+        }
+        getLog().info("Comparison written to " + outputFile);
+
+        if (different && failOnDifference) {
+            throw new MojoFailureException("The property sets differ, see " + outputFile);
+        }
+    }
+
+    private void checkParameters()
+            throws MojoExecutionException {
+        if (sets.length < 2) {
+            throw new MojoExecutionException("At least two sets are needed for a comparison");
+        }
+
+        if (!TEXT.equals(format) && !JSON.equals(format)) {
+            throw new MojoExecutionException("format must be text or json, not " + format);
+        }
+
+        for (final PropertySet set : sets) {
+            if (set.getId() == null || set.getFiles() == null || set.getFiles().length == 0) {
+                throw new MojoExecutionException("Each set needs an id and files: " + set);
+            }
+        }
+    }
+
+    /**
+     * Resolves a set and writes its entries to a run file, keeping nothing of the set in memory once done.
+     *
+     * @return the run file
+     */
+    private File spill(final PropertySet set, final File directory)
+            throws IOException {
+        final PropertyTable table = resolve(set);
+        final File runFile = File.createTempFile("properties-comparison-", ".run", directory);
+        try {
+            final DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)));
+            try {
+                out.writeInt(table.size());
+                for (int i = 0; i < table.size(); i++) {
+                    write(out, table.keyAt(i));
+                    write(out, table.valueAt(i));
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            runFile.delete();
+            throw e;
+        }
+
+        return runFile;
+    }
+
+    private static void write(final DataOutputStream out, final byte[] bytes)
+            throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads and resolves a set, keeping only its resolved entries, sorted by key. Default scope for test access.
+     */
+    PropertyTable resolve(final PropertySet set)
+            throws IOException {
+        final PropertyTable table;
+        try {
+            table = new ConfigLoader().load(set.getFiles()).getTable();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Cannot resolve " + set + ": " + e.getMessage(), e);
+        }
+
+        getLog().debug(String.format("Set %s: %d keys in %d bytes", set.getId(), table.size(),
+                table.getSizeInBytes()));
+        return table;
+    }
+
+    /**
+     * Compares the run files of the sets, the baseline first, and writes the report.
+     */
+    private void compare(final List<File> runFiles, final Summary[] summaries)
+            throws IOException {
+        final List<Run> runs = new ArrayList<Run>(runFiles.size());
+        try {
+            for (final File runFile : runFiles) {
+                runs.add(new Run(runFile));
+            }
+
+            final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), UTF_8));
+            try {
+                final Report report = JSON.equals(format) ? new JsonReport(out) : new TextReport(out);
+                for (int i = 1; i < sets.length; i++) {
+                    summaries[i] = new Summary(sets[i].getId());
+                }
+                report.begin(sets[0].getId());
+                merge(runs, summaries, report);
+                report.end(Arrays.asList(summaries).subList(1, summaries.length));
+            } finally {
+                out.close();
+            }
+        } finally {
+            for (final Run run : runs) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * Walks all the sets at once in key order, comparing the entries of each set to those of the baseline.
+     */
+    private static void merge(final List<Run> runs, final Summary[] summaries, final Report report)
+            throws IOException {
+        final int count = runs.size();
+        final byte[][] values = new byte[count][];
+        while (true) {
+            byte[] key = null;
+            for (final Run run : runs) {
+                if (run.key != null && (key == null || PropertyTable.compareBytes(run.key, key) < 0)) {
+                    key = run.key;
+                }
+            }
+            if (key == null) {
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                final Run run = runs.get(i);
+                values[i] = null;
+                if (run.key != null && PropertyTable.compareBytes(run.key, key) == 0) {
+                    values[i] = run.value;
+                    run.next();
+                }
+            }
+
+            compare(new String(key, UTF_8), values, summaries, report);
+        }
+    }
+
+    private static void compare(final String key, final byte[][] values, final Summary[] summaries,
+                                final Report report)
+            throws IOException {
+        final byte[] baseline = values[0];
+        for (int i = 1; i < values.length; i++) {
+            final Summary summary = summaries[i];
+            if (values[i] == null) {
+                if (baseline != null) {
+                    summary.removed++;
+                    report.removed(summary.id, key, decode(baseline));
+                }
+            } else if (baseline == null) {
+                summary.added++;
+                report.added(summary.id, key, decode(values[i]));
+            } else if (Arrays.equals(baseline, values[i])) {
+                summary.unchanged++;
+            } else {
+                summary.changed++;
+                report.changed(summary.id, key, decode(baseline), decode(values[i]));
+            }
+        }
+    }
+
+    private static String decode(final byte[] bytes) {
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param outputFile The report file.
+     * @param format     The format of the report.
+     * @param sets       The sets to compare, the baseline first.
+     */
+    void configure(final File outputFile, final String format, final PropertySet... sets) {
+        this.outputFile = outputFile;
+        this.format = format;
+        this.sets = sets;
+    }
+
+    /**
+     * The entries of a run file, read back one at a time in key order.
+     */
+    private static final class Run {
+        private final DataInputStream in;
+
+        private int remaining;
+
+        /**
+         * The current entry, <code>null</code> once all are read.
+         */
+        private byte[] key;
+
+        private byte[] value;
+
+        private Run(final File runFile)
+                throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+            try {
+                this.remaining = in.readInt();
+                next();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        private void next()
+                throws IOException {
+            if (remaining == 0) {
+                key = null;
+                value = null;
+                return;
+            }
+
+            key = read();
+            value = read();
+            remaining--;
+        }
+
+        private byte[] read()
+                throws IOException {
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        private void close()
+                throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * The differences of a set with the baseline.
+     */
+    private static final class Summary {
+        private final String id;
+
+        private long added;
+
+        private long removed;
+
+        private long changed;
+
+        private long unchanged;
+
+        private Summary(final String id) {
+            this.id = id;
+        }
+
+        private long differences() {
+            return added + removed + changed;
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "%d added, %d removed, %d changed, %d unchanged", added, removed,
+                    changed, unchanged);
+        }
+    }
+
+    /**
+     * Receives the differences as they are found, in key order.
+     */
+    private interface Report {
+        void begin(String baseline)
+                throws IOException;
+
+        void added(String set, String key, String value)
+                throws IOException;
+
+        void removed(String set, String key, String baselineValue)
+                throws IOException;
+
+        void changed(String set, String key, String baselineValue, String value)
+                throws IOException;
+
+        void end(List<Summary> summaries)
+                throws IOException;
+    }
+
+    /**
+     * One line per difference: <code>+</code> for an added key, <code>-</code> for a removed one and <code>~</code>
+     * for a changed one, followed by the set.
+     */
+    private static final class TextReport
+            implements Report {
+        private final Writer out;
+
+        private TextReport(final Writer out) {
+            this.out = out;
+        }
+
+        public void begin(final String baseline)
+                throws IOException {
+            out.write("# baseline: " + baseline + "\n");
+        }
+
+        public void added(final String set, final String key, final String value)
+                throws IOException {
+            out.write("+ " + set + " " + key + "=" + value + "\n");
+        }
+
+        public void removed(final String set, final String key, final String baselineValue)
+                throws IOException {
+            out.write("- " + set + " " + key + "=" + baselineValue + "\n");
+        }
+
+        public void changed(final String set, final String key, final String baselineValue, final String value)
+                throws IOException {
+            out.write("~ " + set + " " + key + ": " + baselineValue + " -> " + value + "\n");
+        }
+
+        public void end(final List<Summary> summaries)
+                throws IOException {
+            for (final Summary summary : summaries) {
+                out.write("# " + summary.id + ": " + summary + "\n");
+            }
+        }
+    }
+
+    private static final class JsonReport
+            implements Report {
+        private final Writer out;
+
+        private boolean first = true;
+
+        private JsonReport(final Writer out) {
+            this.out = out;
+        }
+
+        public void begin(final String baseline)
+                throws IOException {
+            out.write(ExecutionReport.field(new StringBuilder("{\n  "), "baseline", baseline)
+                    .append(",\n  \"differences\": [").toString());
+        }
+
+        public void added(final String set, final String key, final String value)
+                throws IOException {
+            difference(set, key, "added", null, value);
+        }
+
+        public void removed(final String set, final String key, final String baselineValue)
+                throws IOException {
+            difference(set, key, "removed", baselineValue, null);
+        }
+
+        public void changed(final String set, final String key, final String baselineValue, final String value)
+                throws IOException {
+            difference(set, key, "changed", baselineValue, value);
+        }
+
+        public void end(final List<Summary> summaries)
+                throws IOException {
+            out.write(first ? "],\n  \"summary\": [" : "\n  ],\n  \"summary\": [");
+            for (int i = 0; i < summaries.size(); i++) {
+                final Summary summary = summaries.get(i);
+                final StringBuilder json = new StringBuilder(i == 0 ? "\n    {" : ",\n    {");
+                ExecutionReport.field(json, "set", summary.id);
+                json.append(String.format(Locale.ROOT, ", \"added\": %d, \"removed\": %d, \"changed\": %d, "
+                        + "\"unchanged\": %d}", summary.added, summary.removed, summary.changed, summary.unchanged));
+                out.write(json.toString());
+            }
+            out.write(summaries.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        }
+
+        private void difference(final String set, final String key, final String change, final String baselineValue,
+                                final String value)
+                throws IOException {
+            final StringBuilder json = new StringBuilder(first ? "\n    {" : ",\n    {");
+            first = false;
+            ExecutionReport.field(json, "set", set).append(", ");
+            ExecutionReport.field(json, "key", key).append(", ");
+            ExecutionReport.field(json, "change", change).append(", ");
+            ExecutionReport.field(json, "baseline", baselineValue).append(", ");
+            ExecutionReport.field(json, "value", value).append('}');
+            out.write(json.toString());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Timings and counters of a single goal execution. The executions reported to the same file during a build are
+ * accumulated, so the file holds every execution of the module rather than the last one.
+ */
+class ExecutionReport {
+
+    /**
+     * JSON of the executions of each build already reported, by report file.
+     */
+    private static final BuildCache<Map<File, List<String>>> REPORTED = new BuildCache<Map<File, List<String>>>() {
+        @Override
+        protected Map<File, List<String>> newValue() {
+            return new HashMap<File, List<String>>();
+        }
+    };
+
+    private final String mojo;
+
+    private final long start = System.nanoTime();
+
+    private final List<ResourceStats> resources = new ArrayList<ResourceStats>();
+
+    private long keysEmitted;
+
+    private long placeholdersExpanded;
+
+    private long maxNestingDepth;
+
+    private long cacheHits;
+
+    private long bytesWritten;
+
+    private long writeNanos;
+
+    /**
+     * @param mojo the goal being reported
+     */
+    ExecutionReport(final Object mojo) {
+        this.mojo = mojo.getClass().getSimpleName();
+    }
+
+    /**
+     * @param name the resource being read
+     * @return the statistics of the resource, filled in by the caller
+     */
+    ResourceStats resource(final String name) {
+        final ResourceStats stats = new ResourceStats(name);
+        resources.add(stats);
+        return stats;
+    }
+
+    void keysEmitted(final long count) {
+        keysEmitted += count;
+    }
+
+    void resolved(final long placeholders, final long maxDepth) {
+        placeholdersExpanded += placeholders;
+        maxNestingDepth = Math.max(maxNestingDepth, maxDepth);
+    }
+
+    void cacheHit() {
+        cacheHits++;
+    }
+
+    void written(final long bytes, final long nanos) {
+        bytesWritten += bytes;
+        writeNanos += nanos;
+    }
+
+    /**
+     * Logs the summary of the execution, and writes the report when asked to.
+     *
+     * @param log     where the summary goes, at info level when the report is enabled and debug level otherwise
+     * @param session the build session, the report only holding this execution when <code>null</code>
+     * @param project the project being built, can be <code>null</code>
+     * @param file    the report file, ignored when <code>enabled</code> is <code>false</code>
+     * @param enabled whether the report was asked for
+     * @throws MojoExecutionException when the report cannot be written
+     */
+    void publish(final Log log, final MavenSession session, final MavenProject project, final File file,
+                 final boolean enabled)
+            throws MojoExecutionException {
+        final String summary = summary();
+        if (!enabled) {
+            log.debug(summary);
+            return;
+        }
+
+        log.info(summary);
+        if (file == null) {
+            return;
+        }
+
+        final String json = toJson(project);
+        synchronized (REPORTED) {
+            final File key = file.getAbsoluteFile();
+            final List<String> executions = reported(session, key);
+            executions.add(json);
+            write(key, executions);
+        }
+    }
+
+    private static List<String> reported(final MavenSession session, final File file) {
+        final Map<File, List<String>> files = REPORTED.get(session);
+        if (files == null) {
+            return new ArrayList<String>();
+        }
+
+        List<String> executions = files.get(file);
+        if (executions == null) {
+            executions = new ArrayList<String>();
+            files.put(file, executions);
+        }
+        return executions;
+    }
+
+    String summary() {
+        long bytesRead = 0;
+        for (final ResourceStats resource : resources) {
+            bytesRead += resource.bytesRead;
+        }
+
+        return String.format(Locale.ROOT, "%s: %d resource(s), %d bytes read, %d keys, %d placeholders "
+                        + "(nested %d deep), %d cache hits, %d bytes written in %.1f ms", mojo, resources.size(),
+                bytesRead, keysEmitted, placeholdersExpanded, maxNestingDepth, cacheHits, bytesWritten,
+                millis(System.nanoTime() - start));
+    }
+
+    private String toJson(final MavenProject project) {
+        final StringBuilder json = new StringBuilder("    {");
+        field(json, "mojo", mojo).append(", ");
+        field(json, "project", project == null ? null : project.getId()).append(", ");
+        json.append(String.format(Locale.ROOT, "\"durationMs\": %.3f, ", millis(System.nanoTime() - start)));
+        json.append("\"resources\": [");
+        for (int i = 0; i < resources.size(); i++) {
+            final ResourceStats resource = resources.get(i);
+            json.append(i == 0 ? "\n      {" : ",\n      {");
+            field(json, "name", resource.name);
+            json.append(String.format(Locale.ROOT, ", \"openMs\": %.3f, \"readMs\": %.3f, \"parseMs\": %.3f, "
+                            + "\"bytesRead\": %d, \"keys\": %d}", millis(resource.openNanos),
+                    millis(resource.readNanos), millis(resource.parseNanos), resource.bytesRead, resource.keys));
+        }
+        json.append(resources.isEmpty() ? "], " : "\n    ], ");
+        json.append(String.format(Locale.ROOT, "\"keysEmitted\": %d, \"placeholdersExpanded\": %d, "
+                        + "\"maxNestingDepth\": %d, \"cacheHits\": %d, \"bytesWritten\": %d, \"writeMs\": %.3f}",
+                keysEmitted, placeholdersExpanded, maxNestingDepth, cacheHits, bytesWritten, millis(writeNanos)));
+        return json.toString();
+    }
+
+    private static void write(final File file, final List<String> executions)
+            throws MojoExecutionException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+
+        try {
+            final Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                out.write("{\n  \"executions\": [\n");
+                for (int i = 0; i < executions.size(); i++) {
+                    out.write(executions.get(i));
+                    out.write(i + 1 < executions.size() ? ",\n" : "\n");
+                }
+                out.write("  ]\n}\n");
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error writing the performance report " + file, e);
+        }
+    }
+
+    static StringBuilder field(final StringBuilder json, final String name, final String value) {
+        json.append('"').append(name).append("\": ");
+        if (value == null) {
+            return json.append("null");
+        }
+
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    /**
+     * Timings and counters of a single resource.
+     */
+    static class ResourceStats {
+        private final String name;
+
+        long openNanos;
+
+        long readNanos;
+
+        long parseNanos;
+
+        long bytesRead;
+
+        long keys;
+
+        private ResourceStats(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Counts the bytes written through it.
+     */
+    static class CountingOutputStream
+            extends FilterOutputStream {
+        private long bytes;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        public void write(final int b)
+                throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        public void write(final byte[] buffer, final int offset, final int length)
+                throws IOException {
+            out.write(buffer, offset, length);
+            bytes += length;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.introspection.ReflectionValueExtractor;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates <code>project.*</code> and <code>session.*</code> placeholders, such as <code>${project.version}</code>
+ * or <code>${project.build.directory}</code>, by reflection on the model of the build like Maven does for plugin
+ * parameters. Each distinct expression is evaluated once, its value, or the lack of it, being kept for the rest of
+ * the execution. Not thread safe: one instance serves a single execution.
+ */
+final class ModelExpressionLookup
+        implements ExpressionLookup {
+
+    private static final String PROJECT = "project.";
+
+    private static final String SESSION = "session.";
+
+    private final MavenProject project;
+
+    private final MavenSession session;
+
+    private final Map<String, String> values = new HashMap<String, String>();
+
+    private int evaluations;
+
+    /**
+     * @param project the project being built
+     * @param session the build session, can be <code>null</code> when running outside a build
+     */
+    ModelExpressionLookup(final MavenProject project, final MavenSession session) {
+        this.project = project;
+        this.session = session;
+    }
+
+    public String lookup(final String expression) {
+        if (values.containsKey(expression)) {
+            return values.get(expression);
+        }
+
+        final String value;
+        if (expression.startsWith(PROJECT)) {
+            value = evaluate(expression, project);
+        } else if (expression.startsWith(SESSION)) {
+            value = evaluate(expression, session);
+        } else {
+            return null;
+        }
+
+        values.put(expression, value);
+        return value;
+    }
+
+    /**
+     * @return the number of expressions evaluated by reflection so far
+     */
+    int getEvaluations() {
+        return evaluations;
+    }
+
+    private String evaluate(final String expression, final Object root) {
+        if (root == null) {
+            return null;
+        }
+
+        evaluations++;
+        final Object value;
+        try {
+            value = ReflectionValueExtractor.evaluate(expression, root);
+        } catch (Exception e) {
+            // like an unknown property, the placeholder is left as is
+            return null;
+        }
+
+        if (value instanceof File) {
+            return ((File) value).getPath();
+        }
+        return value == null ? null : String.valueOf(value);
+    }
+}
@@ -0,0 +1,76 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * The keys below a prefix, written to a file of their own by the write goals.
+ */
+public class PropertyPartition {
+
+    /**
+     * The dot-separated prefix of the keys, such as <code>orders</code>: <code>orders.url</code> and
+     * <code>orders.db.user</code> are below it, <code>orders</code> and <code>ordersArchive.url</code> are not.
+     */
+    private String prefix;
+
+    /**
+     * The file the keys are written to.
+     */
+    private File outputFile;
+
+    /**
+     * Writes the keys relative to the prefix, <code>url</code> rather than <code>orders.url</code>.
+     */
+    private boolean stripPrefix;
+
+    public PropertyPartition() {
+    }
+
+    PropertyPartition(final String prefix, final File outputFile, final boolean stripPrefix) {
+        this.prefix = prefix;
+        this.outputFile = outputFile;
+        this.stripPrefix = stripPrefix;
+    }
+
+    /**
+     * @return the prefix without a trailing dot, <code>null</code> when missing
+     */
+    String getPrefix() {
+        if (prefix == null) {
+            return null;
+        }
+        final String trimmed = prefix.trim();
+        return trimmed.endsWith(".") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    File getOutputFile() {
+        return outputFile;
+    }
+
+    boolean isStripPrefix() {
+        return stripPrefix;
+    }
+
+    public String toString() {
+        return "Partition: " + prefix + " -> " + outputFile;
+    }
+}
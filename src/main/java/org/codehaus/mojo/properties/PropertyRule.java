@@ -0,0 +1,72 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Constraints on the values of a key of a {@link PropertySchema}, or of the keys matching it when it holds
+ * <code>*</code> segments, standing for exactly one segment, or <code>**</code> segments, standing for any number.
+ * A value must satisfy every constraint given.
+ */
+public class PropertyRule {
+
+    /**
+     * The key, or pattern of keys, the rule applies to.
+     */
+    private String key;
+
+    /**
+     * The regular expression the values must match.
+     */
+    private String pattern;
+
+    /**
+     * The type of the values: <code>string</code>, <code>integer</code>, <code>number</code> or
+     * <code>boolean</code>.
+     */
+    private String type;
+
+    /**
+     * The values allowed, any value when empty.
+     */
+    private String[] allowed = new String[0];
+
+    public PropertyRule() {
+    }
+
+    PropertyRule(final String key, final String pattern, final String type, final String... allowed) {
+        this.key = key;
+        this.pattern = pattern;
+        this.type = type;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the key is missing, or the pattern or type is invalid
+     */
+    ConfigSchema.Rule compile() {
+        return new ConfigSchema.Rule(key, pattern, type, allowed == null ? null : Arrays.asList(allowed));
+    }
+
+    public String toString() {
+        return "Rule: " + key;
+    }
+}
@@ -0,0 +1,93 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Constraints the properties read must satisfy, checked while the files are read so that a misconfiguration fails
+ * the build before anything uses it:
+ * <pre>
+ * &lt;schema&gt;
+ *   &lt;required&gt;
+ *     &lt;key&gt;db.url&lt;/key&gt;
+ *   &lt;/required&gt;
+ *   &lt;keyPattern&gt;[a-z0-9.-]+&lt;/keyPattern&gt;
+ *   &lt;rules&gt;
+ *     &lt;rule&gt;
+ *       &lt;key&gt;db.*.port&lt;/key&gt;
+ *       &lt;type&gt;integer&lt;/type&gt;
+ *     &lt;/rule&gt;
+ *   &lt;/rules&gt;
+ * &lt;/schema&gt;
+ * </pre>
+ * Keys are those of the files, before any <code>keyPrefix</code> and relative to the <code>rootPath</code>.
+ */
+public class PropertySchema {
+
+    /**
+     * The keys which must be read from one of the files.
+     */
+    private String[] required = new String[0];
+
+    /**
+     * The regular expression every key must match.
+     */
+    private String keyPattern;
+
+    /**
+     * The rules on the values of some keys.
+     */
+    private PropertyRule[] rules = new PropertyRule[0];
+
+    public PropertySchema() {
+    }
+
+    PropertySchema(final String[] required, final String keyPattern, final PropertyRule... rules) {
+        this.required = required;
+        this.keyPattern = keyPattern;
+        this.rules = rules;
+    }
+
+    /**
+     * @return the compiled schema, <code>null</code> when it accepts anything
+     * @throws MojoExecutionException when a pattern or type is invalid
+     */
+    ConfigSchema compile()
+            throws MojoExecutionException {
+        final List<ConfigSchema.Rule> compiledRules = new ArrayList<ConfigSchema.Rule>();
+        try {
+            if (rules != null) {
+                for (final PropertyRule rule : rules) {
+                    compiledRules.add(rule.compile());
+                }
+            }
+            return ConfigSchema.compile(required == null ? Collections.<String>emptyList() : Arrays.asList(required),
+                    keyPattern, compiledRules);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Invalid schema: " + e.getMessage(), e);
+        }
+    }
+}
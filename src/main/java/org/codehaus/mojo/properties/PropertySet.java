@@ -0,0 +1,60 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * A named list of properties and YAML files, merged like <code>read-project-properties</code> merges them, later
+ * files overriding earlier ones.
+ */
+public class PropertySet {
+
+    /**
+     * The name of the set in the reports, such as <code>staging</code>.
+     */
+    private String id;
+
+    /**
+     * The files, in increasing order of precedence.
+     */
+    private File[] files = new File[0];
+
+    public PropertySet() {
+    }
+
+    PropertySet(final String id, final File... files) {
+        this.id = id;
+        this.files = files;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    File[] getFiles() {
+        return files;
+    }
+
+    public String toString() {
+        return "Set " + id + ": " + Arrays.toString(files);
+    }
+}
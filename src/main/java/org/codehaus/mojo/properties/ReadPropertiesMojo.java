@@ -19,24 +19,56 @@ package org.codehaus.mojo.properties;
  * under the License.
  */
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.artifact.InvalidDependencyVersionException;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 /**
  * The read-project-properties goal reads property files and URLs and stores the properties as project properties. It
@@ -52,12 +84,11 @@ public class ReadPropertiesMojo
         extends AbstractMojo {
 
     private static final ResourceType[] SUPPORTED_RESOURCE_TYPES = {ResourceType.PROPERTIES, ResourceType.YAML};
-    /**
-     * Used for resolving property placeholders.
-     */
-    private final PropertyResolver resolver = new PropertyResolver();
+    private static final Set<String> SUPPORTED_EXTENSIONS = ResourceType.allFileExtensions(SUPPORTED_RESOURCE_TYPES);
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
     /**
      * The properties files that will be used when reading properties.
      */
@@ -65,13 +96,49 @@ public class ReadPropertiesMojo
     private File[] files = new File[0];
     /**
      * The URLs that will be used when reading properties. These may be non-standard URLs of the form <code>
-     * classpath:com/company/resource.properties</code>. Note that the type is not <code>URL</code> for this reason and
+     * classpath:com/company/resource.properties</code>, looked up on the project compile and runtime dependencies
+     * first and then on the plugin dependencies. Note that the type is not <code>URL</code> for this reason and
      * therefore will be explicitly checked by this Mojo.
      */
     @Parameter
     private String[] urls = new String[0];
     /**
-     * If the plugin should be quiet if any of the files was not found.
+     * An ordered list of sources mixing file paths, URLs and <code>classpath:</code> resources. Properties are merged
+     * strictly in the declared order, so later sources override earlier ones. Remote sources are fetched in the
+     * background while the local ones are being parsed. Relative file paths are resolved against the project base
+     * directory. Cannot be combined with <code>files</code> or <code>urls</code>.
+     */
+    @Parameter
+    private String[] sources = new String[0];
+    /**
+     * Directories whose properties and YAML files are all read, after the <code>files</code>, <code>urls</code> and
+     * <code>sources</code>. Each one takes <code>directory</code>, <code>includes</code> and <code>excludes</code>, the
+     * patterns being globs relative to the directory, by default every properties and YAML file below it. The files
+     * of a directory are read in the order of their relative paths, so later ones override earlier ones.
+     */
+    @Parameter
+    private SourceDirectory[] directories = new SourceDirectory[0];
+    /**
+     * Milliseconds the scan of each of the <code>directories</code> may take before the build fails.
+     */
+    @Parameter(defaultValue = "5000")
+    private long discoveryBudget = 5000;
+    /**
+     * Shares the properties read by this execution with the rest of the build under this name. The first module to
+     * run the execution reads and resolves the properties and publishes them; the following modules, including those
+     * built in parallel, copy them without reading anything. Values are resolved in the context of the publishing
+     * module, usually the aggregator, so they must not depend on module-specific properties.
+     */
+    @Parameter
+    private String sessionSnapshot;
+    /**
+     * Keeps the <code>sessionSnapshot</code> in direct memory rather than on the heap.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean sessionSnapshotOffHeap;
+    /**
+     * If the plugin should be quiet if any of the files was not found. A URL that could not be downloaded, rather than
+     * found missing, still fails the build.
      */
     @Parameter(defaultValue = "false")
     private boolean quiet;
@@ -81,6 +148,117 @@ public class ReadPropertiesMojo
      */
     @Parameter
     private String keyPrefix;
+    /**
+     * Patterns of the keys to read, all keys when empty. Keys are matched segment by segment: <code>*</code> stands
+     * for one segment, <code>**</code> for any number of them, and a pattern matching a key also selects everything
+     * below it, so <code>spring.datasource</code> selects <code>spring.datasource.url</code>. Unselected YAML
+     * subtrees are skipped while the file is walked.
+     */
+    @Parameter
+    private String[] includes = new String[0];
+    /**
+     * Patterns of the keys not to read, with the same syntax as <code>includes</code>. Excludes win over includes.
+     */
+    @Parameter
+    private String[] excludes = new String[0];
+    /**
+     * Only reads the keys below this path, for example <code>spring.datasource</code>, and removes the path from
+     * them, so <code>spring.datasource.url</code> becomes <code>url</code>. The <code>includes</code> and
+     * <code>excludes</code> patterns are matched against the keys relative to this path.
+     */
+    @Parameter
+    private String rootPath;
+    /**
+     * Constraints on the properties read: <code>required</code> keys, a <code>keyPattern</code> every key must
+     * match, and <code>rules</code> giving the <code>pattern</code>, <code>type</code> or <code>allowed</code>
+     * values of a <code>key</code>. Entries are checked as they are read, and the build fails once every source is
+     * read, listing all the violations. Values holding placeholders are not checked, and a value replaced by a later
+     * source only counts in its last version. The properties copied from a <code>sessionSnapshot</code> are checked
+     * too, on their resolved values.
+     */
+    @Parameter
+    private PropertySchema schema;
+    /**
+     * Flattens the top-level sections of large YAML files on several cores, keeping the keys in source order.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean parallelFlattening;
+    /**
+     * Size in bytes from which a YAML file is flattened in parallel when <code>parallelFlattening</code> is enabled;
+     * smaller files are flattened on the calling thread.
+     */
+    @Parameter(defaultValue = "1048576")
+    private long parallelFlatteningThreshold = 1048576;
+    /**
+     * Milliseconds to wait for a connection to a remote URL, <code>0</code> waits forever.
+     */
+    @Parameter(defaultValue = "10000")
+    private int connectTimeout = 10000;
+    /**
+     * Milliseconds to wait for data from a remote URL, <code>0</code> waits forever.
+     */
+    @Parameter(defaultValue = "30000")
+    private int readTimeout = 30000;
+    /**
+     * How many times the download of a remote URL is attempted again after a failure.
+     */
+    @Parameter(defaultValue = "2")
+    private int fetchRetries = 2;
+    /**
+     * Milliseconds to wait before retrying a failed download, doubled on each further retry.
+     */
+    @Parameter(defaultValue = "500")
+    private long fetchRetryBackoff = 500;
+    /**
+     * Maximum number of remote URLs downloaded at the same time.
+     */
+    @Parameter(defaultValue = "4")
+    private int fetchThreads = 4;
+
+    /**
+     * Collects timings and counters of the execution, writes them to {@link #performanceReportFile} and logs a
+     * one-line summary.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean performanceReport;
+
+    @Parameter(defaultValue = "${project.build.directory}/yaml-properties-report.json")
+    private File performanceReportFile;
+
+    /**
+     * Used to resolve the runtime dependencies of the project, and only when a <code>classpath:</code> URL is read.
+     */
+    @Component
+    private ArtifactResolver artifactResolver;
+
+    @Component
+    private ArtifactFactory artifactFactory;
+
+    @Component
+    private ArtifactMetadataSource artifactMetadataSource;
+
+    @Parameter(defaultValue = "${localRepository}", readonly = true)
+    private ArtifactRepository localRepository;
+
+    @Parameter(defaultValue = "${project.remoteArtifactRepositories}", readonly = true)
+    private List<ArtifactRepository> remoteRepositories;
+
+    private UrlFetcher fetcher;
+
+    private ExecutionReport report;
+
+    private ClasspathIndex classpathIndex;
+
+    private KeyFilter keyFilter;
+
+    private ConfigSchema.Validation validation;
+
+    /**
+     * The keys read by this execution, in the order they were read.
+     */
+    private final Set<String> loadedKeys = new LinkedHashSet<String>();
+
+    private final StringPool.Usage interning = new StringPool.Usage();
 
     private static ResourceType identifyResourceType(final String fileName)
             throws MojoExecutionException {
@@ -101,13 +279,40 @@ public class ReadPropertiesMojo
      */
     public void execute()
             throws MojoExecutionException, MojoFailureException {
+        report = new ExecutionReport(this);
+
+        final ConfigSchema compiledSchema = schema == null ? null : schema.compile();
+        validation = compiledSchema == null ? null : compiledSchema.start();
+
+        // a published snapshot makes the sources irrelevant, not even checked, though its entries meet the schema
+        if (copyFromSessionSnapshot()) {
+            report.publish(getLog(), session, project, performanceReportFile, performanceReport);
+            return;
+        }
+
         checkParameters();
 
+        keyFilter = KeyFilter.compile(rootPath, includes, excludes);
+
+        fetcher = new UrlFetcher(connectTimeout, readTimeout, fetchRetries, fetchRetryBackoff, getLog());
+
         loadFiles();
 
         loadUrls();
 
+        loadSources();
+
+        loadDirectories();
+
+        checkSchema();
+
         resolveProperties();
+
+        publishSessionSnapshot();
+
+        getLog().debug("Shared strings: " + interning);
+
+        report.publish(getLog(), session, project, performanceReportFile, performanceReport);
     }
 
     private void checkParameters()
@@ -117,26 +322,89 @@ public class ReadPropertiesMojo
                     + "no order of precedence can be guaranteed");
         }
 
+        if (discoveryBudget < 1) {
+            throw new MojoExecutionException("discoveryBudget must be at least 1");
+        }
+
+        if (fetchThreads < 1) {
+            throw new MojoExecutionException("fetchThreads must be at least 1");
+        }
+
+        if (sources.length > 0 && (files.length > 0 || urls.length > 0)) {
+            throw new MojoExecutionException("Set sources alone - files and URLs can be listed as sources, "
+                    + "in the order of precedence they must be applied");
+        }
+
         for (final File file : files) {
             if (!file.isFile()) {
                 throw new MojoExecutionException(String.format("File expected, but %s is not a file", file.getPath()));
             }
 
             if (!endsWithExtension(file.getAbsolutePath())) {
-                throw new MojoExecutionException(String.format(
-                        "File name must ends with '.properties', '.yml' or '.yaml', while file '%s' was found",
-                        file.getName()));
+                throw new MojoExecutionException(String.format("File name must ends with '.properties', '.yml' or "
+                        + "'.yaml', optionally followed by '.gz', while file '%s' was found", file.getName()));
             }
         }
 
         for (final String url : urls) {
             if (!endsWithExtension(url)) {
-                throw new MojoExecutionException(String.format(
-                        "Url must ends with '.properties', '.yml' or '.yaml', while url '%s' was found", url));
+                throw new MojoExecutionException(String.format("Url must ends with '.properties', '.yml' or '.yaml', "
+                        + "optionally followed by '.gz', while url '%s' was found", url));
+            }
+        }
+
+        for (final String source : sources) {
+            if (!endsWithExtension(source)) {
+                throw new MojoExecutionException(String.format("Source must ends with '.properties', '.yml' or "
+                        + "'.yaml', optionally followed by '.gz', while source '%s' was found", source));
             }
         }
     }
 
+    private boolean copyFromSessionSnapshot()
+            throws MojoFailureException {
+        if (sessionSnapshot == null) {
+            return false;
+        }
+
+        final SessionSnapshots.Snapshot snapshot = SessionSnapshots.get(session, sessionSnapshot);
+        if (snapshot == null) {
+            return false;
+        }
+
+        if (validation != null) {
+            // the snapshot holds resolved values, under the keys of the project
+            final Properties copy = new Properties();
+            snapshot.copyInto(copy);
+            validation.enter("session snapshot '" + sessionSnapshot + "'");
+            for (final String key : copy.stringPropertyNames()) {
+                final boolean prefixed = keyPrefix != null && key.startsWith(keyPrefix);
+                validation.check(prefixed ? key.substring(keyPrefix.length()) : key, copy.getProperty(key));
+            }
+            checkSchema();
+        }
+
+        snapshot.copyInto(project.getProperties());
+        report.keysEmitted(snapshot.size());
+        report.cacheHit();
+        getLog().debug(String.format("Copied %d properties of session snapshot '%s' resolved by %s", snapshot.size(),
+                sessionSnapshot, snapshot.getOrigin()));
+        return true;
+    }
+
+    private void publishSessionSnapshot() {
+        if (sessionSnapshot == null) {
+            return;
+        }
+
+        final SessionSnapshots.Snapshot snapshot = new SessionSnapshots.Snapshot(project.getProperties(), loadedKeys,
+                project.getId(), sessionSnapshotOffHeap);
+        if (SessionSnapshots.publish(session, sessionSnapshot, snapshot) == snapshot) {
+            getLog().debug(String.format("Published %d properties in %d bytes as session snapshot '%s'",
+                    snapshot.size(), snapshot.getSizeInBytes(), sessionSnapshot));
+        }
+    }
+
     private void loadFiles()
             throws MojoExecutionException {
         for (final File file : files) {
@@ -146,14 +414,189 @@ public class ReadPropertiesMojo
 
     private void loadUrls()
             throws MojoExecutionException {
+        final List<Resource> resources = new ArrayList<Resource>(urls.length);
         for (final String url : urls) {
-            load(new UrlResource(url));
+            resources.add(newUrlResource(url));
+        }
+
+        loadInOrder(resources);
+    }
+
+    private void loadSources()
+            throws MojoExecutionException {
+        final List<Resource> resources = new ArrayList<Resource>(sources.length);
+        for (final String source : sources) {
+            resources.add(toResource(source));
+        }
+
+        loadInOrder(resources);
+    }
+
+    private void loadDirectories()
+            throws MojoExecutionException {
+        for (final SourceDirectory directory : directories) {
+            if (!directory.exists()) {
+                if (quiet) {
+                    getLog().info("Quiet processing - ignoring missing " + directory);
+                    continue;
+                }
+                throw new MojoExecutionException("Properties could not be loaded from missing " + directory);
+            }
+
+            final long start = System.nanoTime();
+            final List<File> discovered = directory.discover(discoveryBudget);
+            getLog().debug(String.format("Found %d file(s) in %s in %d ms", discovered.size(), directory,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+            // the scan saw them as regular files, no need to check again
+            for (final File file : discovered) {
+                loadProperties(new FileResource(file));
+            }
+        }
+    }
+
+    private void loadInOrder(final List<Resource> resources)
+            throws MojoExecutionException {
+        int remoteCount = 0;
+        for (final Resource resource : resources) {
+            if (resource.isRemote()) {
+                remoteCount++;
+            }
+        }
+
+        if (remoteCount == 0) {
+            for (final Resource resource : resources) {
+                load(resource);
+            }
+            return;
+        }
+
+        final ExecutorService prefetcher = UrlFetcher.newExecutor(Math.min(remoteCount, fetchThreads));
+        try {
+            // start every remote download before the first local file is parsed
+            for (int i = 0; i < resources.size(); i++) {
+                final Resource resource = resources.get(i);
+                if (resource.isRemote()) {
+                    resources.set(i, new PrefetchedResource(resource, prefetcher));
+                }
+            }
+
+            for (final Resource resource : resources) {
+                load(resource);
+            }
+        } finally {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    private Resource toResource(final String source)
+            throws MojoExecutionException {
+        if (isUrl(source)) {
+            return newUrlResource(source);
+        }
+
+        File file = new File(source);
+        if (!file.isAbsolute() && project.getBasedir() != null) {
+            file = new File(project.getBasedir(), source);
+        }
+
+        return new FileResource(file);
+    }
+
+    private Resource newUrlResource(final String url)
+            throws MojoExecutionException {
+        if (url.startsWith(ArchiveEntryResource.ARCHIVE_FILE_PREFIX)) {
+            return ArchiveEntryResource.fromUrl(url);
+        }
+
+        final boolean classpath = url.startsWith(UrlResource.CLASSPATH_PREFIX);
+        final UrlResource resource = new UrlResource(url, fetcher, classpath ? classpathIndex() : null);
+        if (resource.isFoundInClasspathIndex()) {
+            report.cacheHit();
+        }
+
+        return resource;
+    }
+
+    private ClasspathIndex classpathIndex()
+            throws MojoExecutionException {
+        if (classpathIndex == null) {
+            try {
+                classpathIndex = ClasspathIndex.forClasspath(session, runtimeClasspath());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot index the project classpath", e);
+            }
+        }
+
+        return classpathIndex;
+    }
+
+    /**
+     * The goal does not require the dependencies to be resolved, which would make every execution pay for it, so they
+     * are resolved here unless an earlier goal of the build already did.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> runtimeClasspath()
+            throws MojoExecutionException {
+        try {
+            if (project.getDependencies().isEmpty() || !project.getArtifacts().isEmpty()) {
+                return project.getRuntimeClasspathElements();
+            }
+
+            final Set<Artifact> dependencies = project.createArtifacts(artifactFactory, null, null);
+            final ArtifactResolutionResult result = artifactResolver.resolveTransitively(dependencies,
+                    project.getArtifact(), project.getManagedVersionMap(), localRepository, remoteRepositories,
+                    artifactMetadataSource, new ScopeArtifactFilter(Artifact.SCOPE_RUNTIME));
+
+            final List<String> elements = new ArrayList<String>();
+            elements.add(project.getBuild().getOutputDirectory());
+            for (final Artifact artifact : (Set<Artifact>) result.getArtifacts()) {
+                if (artifact.getArtifactHandler().isAddedToClasspath() && artifact.getFile() != null) {
+                    elements.add(artifact.getFile().getPath());
+                }
+            }
+            return elements;
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoExecutionException("Project dependencies are not resolved", e);
+        } catch (InvalidDependencyVersionException e) {
+            throw new MojoExecutionException("Invalid dependency version: " + e.getMessage(), e);
+        } catch (ArtifactResolutionException e) {
+            throw new MojoExecutionException("Cannot resolve the project dependencies: " + e.getMessage(), e);
+        } catch (ArtifactNotFoundException e) {
+            throw new MojoExecutionException("Cannot resolve the project dependencies: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isUrl(final String source) {
+        if (source.startsWith(UrlResource.CLASSPATH_PREFIX)) {
+            return true;
+        }
+
+        // a single character before the colon is a Windows drive letter, not a protocol
+        if (source.indexOf(':') <= 1) {
+            return false;
+        }
+
+        try {
+            new URL(source);
+            return true;
+        } catch (MalformedURLException e) {
+            return false;
         }
     }
 
     private void load(final Resource resource)
             throws MojoExecutionException {
-        if (resource.canBeOpened()) {
+        final boolean exists;
+        try {
+            exists = resource.canBeOpened();
+        } catch (IOException e) {
+            // unlike a missing resource, a failed download is never skipped
+            throw new MojoExecutionException("Properties could not be fetched from " + resource + ": "
+                    + e.getMessage(), e);
+        }
+
+        if (exists) {
             loadProperties(resource);
         } else {
             missing(resource);
@@ -166,17 +609,27 @@ public class ReadPropertiesMojo
             getLog().debug("Loading properties from " + resource);
 
             final ResourceType resourceType = resource.getResourceType();
-            final InputStream stream = resource.getInputStream();
+            final ExecutionReport.ResourceStats stats = report.resource(resource.toString());
+            final FlightRecording.Span span = FlightRecording.start(FlightRecording.Phase.LOAD, resource.toString());
+            final long openStart = System.nanoTime();
+            final MeteredInputStream stream =
+                    new MeteredInputStream(resource.getInputStream());
+            final long parseStart = System.nanoTime();
+            stats.openNanos = parseStart - openStart;
+            if (validation != null) {
+                validation.enter(resource.toString());
+            }
             try {
                 final Properties properties;
                 switch (resourceType) {
                     case PROPERTIES:
-                        properties = new Properties();
-                        properties.load(stream);
+                        properties = load(stream);
                         break;
 
                     case YAML:
-                        properties = YamlToPropertiesConverter.convertToProperties(stream);
+                        properties = YamlToPropertiesConverter.convertToProperties(stream, keyFilter,
+                                parallelFlattening ? parallelFlatteningThreshold : YamlToPropertiesConverter.SEQUENTIAL,
+                                validation);
                         break;
 
                     default:
@@ -185,18 +638,66 @@ public class ReadPropertiesMojo
                                         String.format("Resource Type %s is unknown", resourceType)));
                 }
 
+                stats.readNanos = stream.getNanos();
+                stats.parseNanos = System.nanoTime() - parseStart - stats.readNanos;
+                stats.bytesRead = stream.getBytes();
+                stats.keys = properties.size();
+                report.keysEmitted(properties.size());
+
                 final Properties projectProperties = project.getProperties();
                 for (final String key : properties.stringPropertyNames()) {
-                    projectProperties.put(keyPrefix != null ? keyPrefix + key : key, properties.get(key));
+                    final String projectKey =
+                            StringPool.SHARED.intern(keyPrefix != null ? keyPrefix + key : key, interning);
+                    projectProperties.put(projectKey, properties.get(key));
+                    loadedKeys.add(projectKey);
+                    // the converter checks the YAML entries as it emits them
+                    if (validation != null && resourceType == ResourceType.PROPERTIES) {
+                        validation.check(key, properties.getProperty(key));
+                    }
                 }
             } finally {
                 stream.close();
+                span.end(stats.bytesRead, stats.keys);
             }
         } catch (IOException e) {
             throw new MojoExecutionException("Error reading properties from " + resource, e);
         }
     }
 
+    /**
+     * Parses the entries straight into a single table, leaving out those the key filter does not select.
+     */
+    private Properties load(final InputStream stream)
+            throws IOException {
+        final Properties properties = new Properties();
+        PropertiesParser.parse(stream, new PropertiesParser.Sink() {
+            public void property(final String key, final String value) {
+                final String selectedKey = keyFilter == null ? key : keyFilter.apply(key);
+                if (selectedKey != null) {
+                    properties.put(selectedKey, value);
+                }
+            }
+        });
+        return properties;
+    }
+
+    private void checkSchema()
+            throws MojoFailureException {
+        if (validation == null) {
+            return;
+        }
+
+        final List<String> violations = validation.finish();
+        if (!violations.isEmpty()) {
+            final StringBuilder message = new StringBuilder();
+            message.append(violations.size()).append(" schema violation(s):");
+            for (final String violation : violations) {
+                message.append("\n  ").append(violation);
+            }
+            throw new MojoFailureException(message.toString());
+        }
+    }
+
     private void missing(final Resource resource)
             throws MojoExecutionException {
         if (quiet) {
@@ -210,11 +711,19 @@ public class ReadPropertiesMojo
             throws MojoExecutionException, MojoFailureException {
         final Properties environment = loadSystemEnvironmentPropertiesWhenDefined();
         final Properties projectProperties = project.getProperties();
+        final PropertyResolver resolver = new PropertyResolver(
+                SystemPropertiesOverlay.forProject(project).getIsolatedProperties(),
+                new ModelExpressionLookup(project, session));
+        final FlightRecording.Span span = FlightRecording.start(FlightRecording.Phase.RESOLVE, project.getId());
 
         for (final Enumeration<?> n = projectProperties.propertyNames(); n.hasMoreElements(); ) {
             final String k = (String) n.nextElement();
-            projectProperties.setProperty(k, getPropertyValue(k, projectProperties, environment));
+            projectProperties.setProperty(k, StringPool.SHARED.intern(
+                    getPropertyValue(resolver, k, projectProperties, environment), interning));
         }
+
+        report.resolved(resolver.getPlaceholdersExpanded(), resolver.getMaxDepth());
+        span.end(0, projectProperties.size());
     }
 
     private Properties loadSystemEnvironmentPropertiesWhenDefined()
@@ -242,7 +751,8 @@ public class ReadPropertiesMojo
         }
     }
 
-    private String getPropertyValue(final String k, final Properties p, final Properties environment)
+    private String getPropertyValue(final PropertyResolver resolver, final String k, final Properties p,
+                                    final Properties environment)
             throws MojoFailureException {
         try {
             return resolver.getPropertyValue(k, p, environment);
@@ -280,9 +790,71 @@ public class ReadPropertiesMojo
         this.project = project;
     }
 
+    /**
+     * Default scope for test access.
+     *
+     * @param sources The ordered file paths and URLs to read.
+     */
+    void setSources(final String... sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param performanceReportFile Where the performance report is written, enabling it.
+     */
+    void setPerformanceReportFile(final File performanceReportFile) {
+        this.performanceReport = true;
+        this.performanceReportFile = performanceReportFile;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param rootPath The subtree to read.
+     * @param includes The patterns of the keys to read.
+     * @param excludes The patterns of the keys to skip.
+     */
+    void setKeySelection(final String rootPath, final String[] includes, final String[] excludes) {
+        this.rootPath = rootPath;
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param session         The build session.
+     * @param sessionSnapshot The name the properties are shared under.
+     */
+    void setSessionSnapshot(final MavenSession session, final String sessionSnapshot) {
+        this.session = session;
+        this.sessionSnapshot = sessionSnapshot;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param schema The constraints on the properties read.
+     */
+    void setSchema(final PropertySchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param directories The directories to scan.
+     */
+    void setDirectories(final SourceDirectory... directories) {
+        this.directories = directories;
+    }
+
     private boolean endsWithExtension(final String text) {
-        for (final String extension : ResourceType.allFileExtensions(SUPPORTED_RESOURCE_TYPES)) {
-            if (text.toLowerCase().endsWith(extension)) {
+        final String name = ResourceType.withoutCompressionExtension(text.toLowerCase());
+        for (final String extension : SUPPORTED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
                 return true;
             }
         }
@@ -291,14 +863,36 @@ public class ReadPropertiesMojo
     }
 
     private abstract static class Resource {
+        private static final int GZIP_BUFFER_SIZE = 65536;
+
         private final ResourceType resourceType;
+        private final boolean compressed;
         private InputStream stream;
 
         protected Resource(final ResourceType resourceType) {
             this.resourceType = resourceType;
+            this.compressed = false;
+        }
+
+        protected Resource(final String name)
+                throws MojoExecutionException {
+            this.resourceType = identifyResourceType(name);
+            this.compressed = ResourceType.isCompressed(name);
         }
 
-        public abstract boolean canBeOpened();
+        /**
+         * @return <code>false</code> when the resource does not exist
+         * @throws IOException when whether the resource exists cannot be told, such as a failed download
+         */
+        public abstract boolean canBeOpened()
+                throws IOException;
+
+        /**
+         * @return <code>true</code> when opening the resource involves network latency worth overlapping.
+         */
+        public boolean isRemote() {
+            return false;
+        }
 
         protected abstract InputStream openStream()
                 throws IOException;
@@ -306,7 +900,7 @@ public class ReadPropertiesMojo
         public InputStream getInputStream()
                 throws IOException {
             if (stream == null) {
-                stream = openStream();
+                stream = compressed ? new GZIPInputStream(openStream(), GZIP_BUFFER_SIZE) : openStream();
             }
 
             return stream;
@@ -323,7 +917,7 @@ public class ReadPropertiesMojo
 
         public FileResource(final File file)
                 throws MojoExecutionException {
-            super(identifyResourceType(file.getName()));
+            super(file.getName());
             this.file = file;
         }
 
@@ -350,20 +944,28 @@ public class ReadPropertiesMojo
 
         private final URL url;
 
+        private final UrlFetcher fetcher;
+
         private boolean isMissingClasspathResource = false;
 
+        private boolean foundInClasspathIndex = false;
+
         private String classpathUrl;
 
-        public UrlResource(final String url)
+        public UrlResource(final String url, final UrlFetcher fetcher, final ClasspathIndex classpathIndex)
                 throws MojoExecutionException {
-            super(identifyResourceType(url));
+            super(url);
+            this.fetcher = fetcher;
             if (url.startsWith(CLASSPATH_PREFIX)) {
                 String resource = url.substring(CLASSPATH_PREFIX.length(), url.length());
                 if (resource.startsWith(SLASH_PREFIX)) {
                     resource = resource.substring(1, resource.length());
                 }
 
-                this.url = getClass().getClassLoader().getResource(resource);
+                final URL projectUrl = classpathIndex.find(resource);
+                foundInClasspathIndex = projectUrl != null;
+                this.url = projectUrl != null
+                        ? projectUrl : classpathIndex.findOnPluginClassLoader(getClass().getClassLoader(), resource);
                 if (this.url == null) {
                     isMissingClasspathResource = true;
                     classpathUrl = url;
@@ -377,22 +979,41 @@ public class ReadPropertiesMojo
             }
         }
 
-        public boolean canBeOpened() {
+        public boolean canBeOpened()
+                throws IOException {
             if (isMissingClasspathResource) {
                 return false;
             }
 
             try {
-                openStream();
-            } catch (IOException e) {
+                // kept open for the read that follows
+                getInputStream();
+            } catch (FileNotFoundException e) {
                 return false;
             }
 
             return true;
         }
 
+        public boolean isFoundInClasspathIndex() {
+            return foundInClasspathIndex;
+        }
+
+        public boolean isRemote() {
+            if (url == null) {
+                return false;
+            }
+
+            final String protocol = url.getProtocol();
+            return !"file".equals(protocol) && !"jar".equals(protocol);
+        }
+
         protected InputStream openStream()
                 throws IOException {
+            if (isRemote()) {
+                return new ByteArrayInputStream(fetcher.fetch(url));
+            }
+
             return new BufferedInputStream(url.openStream());
         }
 
@@ -405,4 +1026,187 @@ public class ReadPropertiesMojo
         }
     }
 
+    /**
+     * An entry of a local zip or jar archive, addressed as <code>jar:file:/path/config.jar!/entry.yml</code>. The entry
+     * is streamed through the zip file system, without being extracted to disk.
+     */
+    private static class ArchiveEntryResource
+            extends Resource {
+        private static final String ARCHIVE_FILE_PREFIX = "jar:file:";
+
+        private static final String ENTRY_SEPARATOR = "!/";
+
+        private final File archive;
+
+        private final String entry;
+
+        private FileSystem fileSystem;
+
+        public ArchiveEntryResource(final File archive, final String entry)
+                throws MojoExecutionException {
+            super(entry);
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        static ArchiveEntryResource fromUrl(final String url)
+                throws MojoExecutionException {
+            final int separator = url.indexOf(ENTRY_SEPARATOR);
+            if (separator < 0) {
+                throw new MojoExecutionException(String.format("Archive URL %s does not name an entry", url));
+            }
+
+            try {
+                final File archive = new File(new URL(url.substring("jar:".length(), separator)).toURI());
+                return new ArchiveEntryResource(archive, url.substring(separator + ENTRY_SEPARATOR.length()));
+            } catch (MalformedURLException e) {
+                throw new MojoExecutionException(String.format("Badly formed URL %s - %s", url, e.getMessage()));
+            } catch (URISyntaxException e) {
+                throw new MojoExecutionException(String.format("Badly formed URL %s - %s", url, e.getMessage()));
+            }
+        }
+
+        public boolean canBeOpened() {
+            if (!archive.isFile()) {
+                return false;
+            }
+
+            try {
+                if (Files.isRegularFile(entryPath())) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // not a readable archive
+            }
+
+            closeFileSystem();
+            return false;
+        }
+
+        protected InputStream openStream()
+                throws IOException {
+            final InputStream entryStream = Files.newInputStream(entryPath());
+            return new BufferedInputStream(entryStream) {
+                public void close()
+                        throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        closeFileSystem();
+                    }
+                }
+            };
+        }
+
+        private Path entryPath()
+                throws IOException {
+            if (fileSystem == null) {
+                fileSystem = FileSystems.newFileSystem(archive.toPath(), (ClassLoader) null);
+            }
+
+            return fileSystem.getPath(entry);
+        }
+
+        private void closeFileSystem() {
+            if (fileSystem != null) {
+                try {
+                    fileSystem.close();
+                } catch (IOException e) {
+                    // nothing was written, nothing can be lost
+                }
+                fileSystem = null;
+            }
+        }
+
+        public String toString() {
+            return "Archive entry: " + archive + ENTRY_SEPARATOR + entry;
+        }
+    }
+
+    /**
+     * Downloads the content of a remote resource in the background, so the download overlaps with the parsing of the
+     * resources that precede it.
+     */
+    private static class PrefetchedResource
+            extends Resource {
+        private final Resource delegate;
+
+        private final Future<byte[]> content;
+
+        public PrefetchedResource(final Resource delegate, final ExecutorService prefetcher) {
+            super(delegate.getResourceType());
+            this.delegate = delegate;
+            this.content = prefetcher.submit(new Callable<byte[]>() {
+                public byte[] call()
+                        throws IOException {
+                    return readFully(delegate);
+                }
+            });
+        }
+
+        public boolean canBeOpened()
+                throws IOException {
+            return awaitContent() != null;
+        }
+
+        public boolean isRemote() {
+            return true;
+        }
+
+        protected InputStream openStream()
+                throws IOException {
+            final byte[] bytes = awaitContent();
+            if (bytes == null) {
+                throw new FileNotFoundException(delegate.toString());
+            }
+
+            return new ByteArrayInputStream(bytes);
+        }
+
+        /**
+         * @return the downloaded content, <code>null</code> when the resource does not exist
+         * @throws IOException when the download failed
+         */
+        private byte[] awaitContent()
+                throws IOException {
+            try {
+                return content.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while fetching " + delegate);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Could not fetch " + delegate, e.getCause());
+            }
+        }
+
+        private static byte[] readFully(final Resource resource)
+                throws IOException {
+            final InputStream stream;
+            try {
+                stream = resource.getInputStream();
+            } catch (FileNotFoundException e) {
+                // reported as missing, exactly like a local file that does not exist
+                return null;
+            }
+
+            try {
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                final byte[] chunk = new byte[8192];
+                for (int read = stream.read(chunk); read != -1; read = stream.read(chunk)) {
+                    buffer.write(chunk, 0, read);
+                }
+                return buffer.toByteArray();
+            } finally {
+                stream.close();
+            }
+        }
+
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
 }
@@ -0,0 +1,58 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Puts back the system properties replaced by the set-system-properties goal for the current project, and drops
+ * its isolated properties, so that they do not leak into the modules built afterwards.
+ */
+@Mojo(name = "restore-system-properties", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
+public class RestoreSystemPropertiesMojo
+        extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute()
+            throws MojoExecutionException {
+        int count = SystemPropertiesOverlay.forProject(project).restore();
+
+        getLog().info("Restored " + count + " system " + (count == 1 ? "property" : "properties"));
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param project The test project.
+     */
+    void setProject(final MavenProject project) {
+        this.project = project;
+    }
+}
@@ -0,0 +1,130 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolved properties published by name for the rest of a build, so that the modules of a reactor can reuse what an
+ * earlier module read instead of reading and resolving the same files again.
+ * <p>
+ * Maven clones the session for each module built with <code>-T</code>, so the snapshots are kept in a
+ * {@link BuildCache}, which the clones share, by execution root directory. Snapshots are immutable and can be read
+ * from any thread.
+ */
+final class SessionSnapshots {
+
+    /**
+     * Snapshots of each build by execution root directory and name.
+     */
+    private static final BuildCache<ConcurrentMap<String, Snapshot>> SNAPSHOTS =
+            new BuildCache<ConcurrentMap<String, Snapshot>>() {
+                @Override
+                protected ConcurrentMap<String, Snapshot> newValue() {
+                    return new ConcurrentHashMap<String, Snapshot>();
+                }
+            };
+
+    private SessionSnapshots() {
+    }
+
+    /**
+     * @param session the build session, can be <code>null</code> when running outside a build
+     * @param name    the name of the snapshot
+     * @return the published snapshot, <code>null</code> when none was published yet
+     */
+    static Snapshot get(final MavenSession session, final String name) {
+        final ConcurrentMap<String, Snapshot> snapshots = snapshots(session);
+        return snapshots == null ? null : snapshots.get(key(session, name));
+    }
+
+    /**
+     * Publishes a snapshot unless another module did it first.
+     *
+     * @param session  the build session, can be <code>null</code> in which case nothing is published
+     * @param name     the name of the snapshot
+     * @param snapshot the snapshot to publish
+     * @return the snapshot of the session, the given one unless another module published first
+     */
+    static Snapshot publish(final MavenSession session, final String name, final Snapshot snapshot) {
+        final ConcurrentMap<String, Snapshot> snapshots = snapshots(session);
+        if (snapshots == null) {
+            return snapshot;
+        }
+
+        final Snapshot published = snapshots.putIfAbsent(key(session, name), snapshot);
+        return published == null ? snapshot : published;
+    }
+
+    private static ConcurrentMap<String, Snapshot> snapshots(final MavenSession session) {
+        return SNAPSHOTS.get(session);
+    }
+
+    private static String key(final MavenSession session, final String name) {
+        return session.getExecutionRootDirectory() + '|' + name;
+    }
+
+    /**
+     * Immutable copy of resolved properties, kept as a {@link PropertyTable} for as long as the build runs.
+     */
+    static final class Snapshot {
+        private final PropertyTable table;
+
+        private final String origin;
+
+        /**
+         * @param properties the resolved properties
+         * @param keys       the keys to copy from them
+         * @param origin     the project which resolved them, for the logs
+         * @param direct     whether the copy is stored outside the heap
+         */
+        Snapshot(final Properties properties, final Collection<String> keys, final String origin,
+                 final boolean direct) {
+            this.table = PropertyTable.of(properties, keys, direct);
+            this.origin = origin;
+        }
+
+        /**
+         * Copies the properties, replacing existing values like a read would.
+         *
+         * @param target where the properties are copied
+         */
+        void copyInto(final Properties target) {
+            table.copyInto(target);
+        }
+
+        int size() {
+            return table.size();
+        }
+
+        long getSizeInBytes() {
+            return table.getSizeInBytes();
+        }
+
+        String getOrigin() {
+            return origin;
+        }
+    }
+}
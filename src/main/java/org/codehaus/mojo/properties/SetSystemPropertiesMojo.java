@@ -19,13 +19,16 @@ package org.codehaus.mojo.properties;
  * under the License.
  */
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 
+import java.io.File;
 import java.util.Enumeration;
 import java.util.Properties;
 
@@ -46,6 +49,30 @@ public class SetSystemPropertiesMojo
     @Parameter(required = true)
     private Properties properties;
 
+    /**
+     * Keeps the properties visible to the goals of this plugin for the current project only, instead of setting them
+     * on the JVM. Modules built in parallel with <code>-T</code> then cannot see each other's values. Other plugins
+     * do not see isolated properties.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean isolated;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
+    /**
+     * Collects timings and counters of the execution, writes them to {@link #performanceReportFile} and logs a
+     * one-line summary.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean performanceReport;
+
+    @Parameter(defaultValue = "${project.build.directory}/yaml-properties-report.json")
+    private File performanceReportFile;
+
     // Mojo methods -----------------------------------------------------------
 
     /**
@@ -59,7 +86,11 @@ public class SetSystemPropertiesMojo
             return;
         }
 
-        getLog().debug("Setting system properties:");
+        ExecutionReport report = new ExecutionReport(this);
+
+        getLog().debug("Setting " + (isolated ? "isolated " : "") + "system properties:");
+
+        SystemPropertiesOverlay overlay = SystemPropertiesOverlay.forProject(project);
 
         for (Enumeration<?> propertyNames = properties.propertyNames(); propertyNames.hasMoreElements(); ) {
             String propertyName = propertyNames.nextElement().toString();
@@ -67,11 +98,32 @@ public class SetSystemPropertiesMojo
 
             getLog().debug("- " + propertyName + " = " + propertyValue);
 
-            System.setProperty(propertyName, propertyValue);
+            if (isolated) {
+                overlay.setIsolatedProperty(propertyName, propertyValue);
+            } else {
+                overlay.setSystemProperty(propertyName, propertyValue);
+            }
         }
 
         int count = properties.size();
 
-        getLog().info("Set " + count + " system " + (count > 1 ? "properties" : "property"));
+        getLog().info("Set " + count + (isolated ? " isolated" : "") + " system "
+                + (count > 1 ? "properties" : "property"));
+
+        report.keysEmitted(count);
+        report.publish(getLog(), session, project, performanceReportFile, performanceReport);
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param properties The system properties to set.
+     * @param isolated   Set to <code>true</code> to keep the properties visible to the current project only.
+     * @param project    The test project.
+     */
+    void configure(final Properties properties, final boolean isolated, final MavenProject project) {
+        this.properties = properties;
+        this.isolated = isolated;
+        this.project = project;
     }
 }
@@ -0,0 +1,212 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A directory holding properties and YAML files, selected by Ant-like glob patterns relative to the directory, such
+ * as <code>**&#47;*.yml</code> or <code>fragments/*.properties</code>. A leading <code>**&#47;</code> also matches
+ * files directly in the directory.
+ */
+public class SourceDirectory {
+
+    private static final String ANY_DIRECTORIES = "**/";
+
+    /**
+     * How deep the walk goes below the directory, bounding the walk through symbolic links.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private static final String[] DEFAULT_INCLUDES = {"**/*.properties", "**/*.yml", "**/*.yaml",
+            "**/*.properties.gz", "**/*.yml.gz", "**/*.yaml.gz"};
+
+    /**
+     * The directory to scan.
+     */
+    private File directory;
+
+    /**
+     * The patterns of the files to read, all properties and YAML files when empty.
+     */
+    private String[] includes = new String[0];
+
+    /**
+     * The patterns of the files not to read. A pattern ending with <code>/**</code> skips a whole directory.
+     */
+    private String[] excludes = new String[0];
+
+    public SourceDirectory() {
+    }
+
+    SourceDirectory(final File directory, final String[] includes, final String[] excludes) {
+        this.directory = directory;
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return whether the directory can be scanned
+     */
+    boolean exists() {
+        return directory != null && directory.isDirectory();
+    }
+
+    /**
+     * Lists the selected files in a single walk of the directory, using the attributes the walk reads anyway. Symbolic
+     * links are followed, such as the ones a Kubernetes ConfigMap volume is made of, and a link back to one of its
+     * parent directories is skipped.
+     *
+     * @param budget the milliseconds the walk may take
+     * @return the selected files, sorted by their path relative to the directory
+     * @throws MojoExecutionException when the walk fails or takes longer than the budget
+     */
+    List<File> discover(final long budget)
+            throws MojoExecutionException {
+        final Path root = directory.toPath();
+        final FileSystem fileSystem = root.getFileSystem();
+        final List<PathMatcher> includeMatchers =
+                matchers(fileSystem, includes == null || includes.length == 0 ? DEFAULT_INCLUDES : includes);
+        final List<PathMatcher> excludeMatchers = matchers(fileSystem, excludes);
+        final List<PathMatcher> excludedDirectories = directoryMatchers(fileSystem, excludes);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+
+        final List<Path> selected = new ArrayList<Path>();
+        final boolean[] overBudget = new boolean[1];
+        try {
+            final Set<FileVisitOption> options = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+            Files.walkFileTree(root, options, MAX_DEPTH, new SimpleFileVisitor<Path>() {
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    if (System.nanoTime() > deadline) {
+                        overBudget[0] = true;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return !dir.equals(root) && matches(excludedDirectories, root.relativize(dir))
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (System.nanoTime() > deadline) {
+                        overBudget[0] = true;
+                        return FileVisitResult.TERMINATE;
+                    }
+
+                    final Path relative = root.relativize(file);
+                    if (attrs.isRegularFile() && matches(includeMatchers, relative)
+                            && !matches(excludeMatchers, relative)
+                            && ResourceType.getByFileName(file.getFileName().toString()) != null) {
+                        selected.add(relative);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc)
+                        throws IOException {
+                    if (exc instanceof FileSystemLoopException) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    throw exc;
+                }
+            });
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error scanning " + directory, e);
+        }
+
+        if (overBudget[0]) {
+            throw new MojoExecutionException(String.format("Scanning %s took more than %d ms, narrow its includes "
+                    + "or raise discoveryBudget", directory, budget));
+        }
+
+        // the walk order depends on the file system, sorting makes the precedence of the files predictable
+        Collections.sort(selected);
+        final List<File> files = new ArrayList<File>(selected.size());
+        for (final Path relative : selected) {
+            files.add(root.resolve(relative).toFile());
+        }
+        return files;
+    }
+
+    public String toString() {
+        return "Directory: " + directory;
+    }
+
+    private static List<PathMatcher> matchers(final FileSystem fileSystem, final String[] patterns) {
+        final List<PathMatcher> matchers = new ArrayList<PathMatcher>();
+        if (patterns != null) {
+            for (final String pattern : patterns) {
+                addMatcher(fileSystem, matchers, pattern.trim());
+            }
+        }
+        return matchers;
+    }
+
+    private static List<PathMatcher> directoryMatchers(final FileSystem fileSystem, final String[] patterns) {
+        final List<PathMatcher> matchers = new ArrayList<PathMatcher>();
+        if (patterns != null) {
+            for (final String pattern : patterns) {
+                final String trimmed = pattern.trim();
+                if (trimmed.endsWith("/**")) {
+                    addMatcher(fileSystem, matchers, trimmed.substring(0, trimmed.length() - 3));
+                }
+            }
+        }
+        return matchers;
+    }
+
+    private static void addMatcher(final FileSystem fileSystem, final List<PathMatcher> matchers,
+                                   final String pattern) {
+        matchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+        if (pattern.startsWith(ANY_DIRECTORIES)) {
+            // unlike Ant, the NIO glob needs at least one directory before the name
+            addMatcher(fileSystem, matchers, pattern.substring(ANY_DIRECTORIES.length()));
+        }
+    }
+
+    private static boolean matches(final List<PathMatcher> matchers, final Path relative) {
+        for (final PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
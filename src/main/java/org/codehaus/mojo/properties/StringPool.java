@@ -0,0 +1,134 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of the keys and values read by the modules of a build, so that modules reading the same files
+ * share the same strings instead of holding a copy each. The pool only references its strings weakly, so a string no
+ * module holds any more is dropped. It is split in independently locked segments, each bounded: a full segment is
+ * emptied rather than grown.
+ */
+final class StringPool {
+
+    /**
+     * The pool shared by every execution in the JVM.
+     */
+    static final StringPool SHARED = new StringPool(1048576, 32);
+
+    /**
+     * Estimated bytes of a string beyond its characters: the object and the header of its array.
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    private final Segment[] segments;
+
+    private final int maxEntriesPerSegment;
+
+    /**
+     * @param maxEntries the number of strings held at most
+     * @param segments   the number of independently locked segments, a power of two
+     */
+    StringPool(final int maxEntries, final int segments) {
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment();
+        }
+        this.maxEntriesPerSegment = Math.max(1, maxEntries / segments);
+    }
+
+    /**
+     * @param value the string to share, can be <code>null</code>
+     * @param usage where the hit or miss is counted
+     * @return the canonical instance equal to <code>value</code>
+     */
+    String intern(final String value, final Usage usage) {
+        if (value == null) {
+            return null;
+        }
+
+        final int hash = value.hashCode();
+        final Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+        synchronized (segment) {
+            final WeakReference<String> reference = segment.get(value);
+            final String canonical = reference == null ? null : reference.get();
+            if (canonical != null) {
+                usage.hit(canonical == value ? null : value);
+                return canonical;
+            }
+
+            if (segment.size() >= maxEntriesPerSegment) {
+                segment.clear();
+            }
+            segment.put(value, new WeakReference<String>(value));
+            usage.miss();
+            return value;
+        }
+    }
+
+    /**
+     * Strings by themselves, the values referencing them weakly too so that the keys can be collected.
+     */
+    private static final class Segment
+            extends WeakHashMap<String, WeakReference<String>> {
+    }
+
+    /**
+     * What a single execution gained from the pool.
+     */
+    static final class Usage {
+        private long hits;
+
+        private long misses;
+
+        private long bytesSaved;
+
+        /**
+         * @param duplicate the copy replaced by the canonical instance, <code>null</code> when it was the canonical one
+         */
+        private void hit(final String duplicate) {
+            hits++;
+            if (duplicate != null) {
+                bytesSaved += STRING_OVERHEAD + 2L * duplicate.length();
+            }
+        }
+
+        private void miss() {
+            misses++;
+        }
+
+        long getHits() {
+            return hits;
+        }
+
+        long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        public String toString() {
+            final long lookups = hits + misses;
+            return String.format(Locale.ROOT, "%d strings interned, %.1f%% hit rate, about %d bytes saved", lookups,
+                    lookups == 0 ? 0.0 : 100.0 * hits / lookups, bytesSaved);
+        }
+    }
+}
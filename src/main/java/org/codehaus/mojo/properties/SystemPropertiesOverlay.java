@@ -0,0 +1,187 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * System properties set by this plugin for a single project. In isolated mode the values only live here, where the
+ * resolver and the write goals of the same project look them up before the JVM-wide system properties, so modules
+ * built in parallel do not see each other's values. In global mode the values are set on the JVM, and the values they
+ * replaced are remembered so that they can be restored once the module is built.
+ * <p>
+ * Modules built in parallel may set the same system property in global mode. The value the property had before the
+ * first of them is kept for all of them, and once a module is restored the property takes the value of the last
+ * module still setting it, or its original value when none is left, whatever the order the modules end in.
+ */
+class SystemPropertiesOverlay {
+
+    /**
+     * Overlays by project. Projects are compared by coordinates, so a project cloned for a forked execution shares
+     * the overlay of the original; Maven refuses two projects with the same coordinates in a reactor, so the modules
+     * of a build never share an overlay.
+     */
+    private static final Map<MavenProject, SystemPropertiesOverlay> OVERLAYS =
+            Collections.synchronizedMap(new WeakHashMap<MavenProject, SystemPropertiesOverlay>());
+
+    /**
+     * System properties set in global mode by the overlays not restored yet, by name. Guards every change to the
+     * system properties made by this class.
+     */
+    private static final Map<String, GlobalProperty> GLOBAL_PROPERTIES = new HashMap<String, GlobalProperty>();
+
+    private final Properties properties = new Properties();
+
+    /**
+     * Names of the system properties set in global mode.
+     */
+    private final Set<String> globalNames = new LinkedHashSet<String>();
+
+    /**
+     * @param project the project being built, can be <code>null</code> when running without a POM
+     * @return the overlay of the project, created on first use
+     */
+    static SystemPropertiesOverlay forProject(final MavenProject project) {
+        if (project == null) {
+            return new SystemPropertiesOverlay();
+        }
+
+        synchronized (OVERLAYS) {
+            SystemPropertiesOverlay overlay = OVERLAYS.get(project);
+            if (overlay == null) {
+                overlay = new SystemPropertiesOverlay();
+                OVERLAYS.put(project, overlay);
+            }
+            return overlay;
+        }
+    }
+
+    /**
+     * Sets a value visible to this project only.
+     *
+     * @param name  the property name
+     * @param value the property value
+     */
+    void setIsolatedProperty(final String name, final String value) {
+        properties.setProperty(name, value);
+    }
+
+    /**
+     * Sets a JVM-wide system property, remembering the value it had before any module set it.
+     *
+     * @param name  the property name
+     * @param value the property value
+     */
+    void setSystemProperty(final String name, final String value) {
+        synchronized (GLOBAL_PROPERTIES) {
+            GlobalProperty property = GLOBAL_PROPERTIES.get(name);
+            if (property == null) {
+                property = new GlobalProperty(System.getProperty(name));
+                GLOBAL_PROPERTIES.put(name, property);
+            }
+
+            property.set(this, value);
+            globalNames.add(name);
+            System.setProperty(name, value);
+        }
+    }
+
+    /**
+     * @return the values visible to this project only, backed by the overlay
+     */
+    Properties getIsolatedProperties() {
+        return properties;
+    }
+
+    /**
+     * Puts back the system properties set in global mode and drops the isolated values.
+     *
+     * @return the number of system properties restored
+     */
+    int restore() {
+        synchronized (GLOBAL_PROPERTIES) {
+            for (final String name : globalNames) {
+                final GlobalProperty property = GLOBAL_PROPERTIES.get(name);
+                final String value = property.release(this);
+                if (property.isReleased()) {
+                    GLOBAL_PROPERTIES.remove(name);
+                }
+
+                if (value == null) {
+                    System.clearProperty(name);
+                } else {
+                    System.setProperty(name, value);
+                }
+            }
+
+            final int count = globalNames.size();
+            globalNames.clear();
+            properties.clear();
+            return count;
+        }
+    }
+
+    /**
+     * A system property set in global mode, with the value it had before and the value of each overlay setting it.
+     */
+    private static final class GlobalProperty {
+        private final String original;
+
+        /**
+         * Values by overlay, the last set last.
+         */
+        private final Map<SystemPropertiesOverlay, String> values =
+                new LinkedHashMap<SystemPropertiesOverlay, String>();
+
+        private GlobalProperty(final String original) {
+            this.original = original;
+        }
+
+        private void set(final SystemPropertiesOverlay overlay, final String value) {
+            values.remove(overlay);
+            values.put(overlay, value);
+        }
+
+        /**
+         * @return the value the property takes once the overlay no longer sets it, <code>null</code> when unset
+         */
+        private String release(final SystemPropertiesOverlay overlay) {
+            values.remove(overlay);
+            String value = original;
+            for (final String remaining : values.values()) {
+                value = remaining;
+            }
+            return value;
+        }
+
+        private boolean isReleased() {
+            return values.isEmpty();
+        }
+    }
+}
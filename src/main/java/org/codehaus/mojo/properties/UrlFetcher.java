@@ -0,0 +1,167 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Downloads the content of URLs with bounded connect and read timeouts, retrying failed attempts with an exponential
+ * backoff. Safe to share between threads.
+ */
+class UrlFetcher {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    private final int retries;
+
+    private final long retryBackoff;
+
+    private final Log log;
+
+    /**
+     * @param connectTimeout milliseconds to wait for a connection, <code>0</code> waits forever
+     * @param readTimeout    milliseconds to wait for data, <code>0</code> waits forever
+     * @param retries        how many times a failed download is attempted again
+     * @param retryBackoff   milliseconds to wait before the first retry, doubled on each further retry
+     * @param log            where latencies and retries are reported
+     */
+    UrlFetcher(final int connectTimeout, final int readTimeout, final int retries, final long retryBackoff,
+               final Log log) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.retries = retries;
+        this.retryBackoff = retryBackoff;
+        this.log = log;
+    }
+
+    /**
+     * Reads the whole content of an URL.
+     *
+     * @param url the URL to download
+     * @return the downloaded bytes
+     * @throws IOException when the last attempt failed, or when the resource does not exist
+     */
+    byte[] fetch(final URL url)
+            throws IOException {
+        final long start = System.nanoTime();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                final byte[] content = fetchOnce(url);
+                log.info(String.format("Fetched %s (%d bytes) in %d ms%s", url, content.length,
+                        (System.nanoTime() - start) / 1000000L,
+                        attempt > 0 ? " after " + attempt + (attempt > 1 ? " retries" : " retry") : ""));
+                return content;
+            } catch (FileNotFoundException e) {
+                // a missing resource will not show up by asking again
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= retries) {
+                    log.warn(String.format("Giving up on %s after %d ms: %s", url,
+                            (System.nanoTime() - start) / 1000000L, e));
+                    throw e;
+                }
+
+                final long delay = retryBackoff << attempt;
+                log.warn(String.format("Attempt %d on %s failed (%s), retrying in %d ms", attempt + 1, url, e,
+                        delay));
+                sleep(delay);
+            }
+        }
+    }
+
+    private byte[] fetchOnce(final URL url)
+            throws IOException {
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+
+        final InputStream stream = connection.getInputStream();
+        try {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[BUFFER_SIZE];
+            for (int read = stream.read(chunk); read != -1; read = stream.read(chunk)) {
+                buffer.write(chunk, 0, read);
+            }
+            return buffer.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void sleep(final long millis)
+            throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Creates the pool downloads run on. Virtual threads are used when the runtime supports them, since the pool
+     * threads spend nearly all their time blocked on the network.
+     *
+     * @param threads the maximum number of downloads running at the same time
+     * @return a pool whose threads do not prevent the JVM from exiting
+     */
+    static ExecutorService newExecutor(final int threads) {
+        final ThreadFactory virtualThreads = virtualThreadFactory();
+        if (virtualThreads != null) {
+            return Executors.newFixedThreadPool(threads, virtualThreads);
+        }
+
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+
+            public synchronized Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "yaml-properties-fetch-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            // runtime older than Java 21
+            return null;
+        }
+    }
+}
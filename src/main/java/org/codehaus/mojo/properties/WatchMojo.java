@@ -0,0 +1,426 @@
+package org.codehaus.mojo.properties;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the given files like <code>read-project-properties</code>, writes the resolved properties of the project
+ * like <code>write-project-properties</code>, then keeps running and rewrites the output each time one of the files
+ * changes. Only the changed file is parsed again, and only the keys it changed and the keys referencing them are
+ * resolved again. Stop it with Ctrl+C.
+ */
+@Mojo(name = "watch", defaultPhase = LifecyclePhase.NONE, requiresProject = true)
+public class WatchMojo
+        extends AbstractWritePropertiesMojo {
+
+    /**
+     * The properties and YAML files to read and watch, later files overriding earlier ones.
+     */
+    @Parameter(required = true)
+    private File[] files = new File[0];
+
+    /**
+     * Prefix that will be added before name of each property read from the files.
+     */
+    @Parameter
+    private String keyPrefix;
+
+    /**
+     * Milliseconds without further change of the files before the output is rewritten, so that editors writing a
+     * file in several steps trigger a single regeneration.
+     */
+    @Parameter(defaultValue = "100")
+    private long debounce = 100;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
+    /**
+     * Project properties as they were before any file was read.
+     */
+    private Properties base;
+
+    /**
+     * Unresolved properties of each file, in the declared order.
+     */
+    private final Map<File, Properties> fileProperties = new LinkedHashMap<File, Properties>();
+
+    /**
+     * Unresolved properties of the project and the files, the files overriding the project.
+     */
+    private final Properties raw = new Properties();
+
+    private final Properties resolved = new Properties();
+
+    /**
+     * The keys whose values reference a key, by referenced key.
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    /**
+     * The keys looked up when a key was last resolved, found or not, by resolved key.
+     */
+    private final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+
+    private Properties environment;
+
+    private volatile WatchService watchService;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute()
+            throws MojoExecutionException, MojoFailureException {
+        validateOutputFile();
+
+        base = new Properties();
+        base.putAll(getProject().getProperties());
+        for (final File file : files) {
+            fileProperties.put(file.getAbsoluteFile(), parse(file));
+        }
+        merge(raw.stringPropertyNames());
+        try {
+            resolve(raw.stringPropertyNames());
+        } catch (IllegalArgumentException e) {
+            throw new MojoFailureException(e.getMessage());
+        }
+        writeProperties(resolved, getOutputFile());
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            final Set<Path> directories = new HashSet<Path>();
+            for (final File file : fileProperties.keySet()) {
+                final Path directory = file.getParentFile().toPath();
+                if (directories.add(directory)) {
+                    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot watch " + fileProperties.keySet(), e);
+        }
+
+        getLog().info("Watching " + fileProperties.size() + " file(s), writing " + getOutputFiles());
+        try {
+            watch();
+        } catch (ClosedWatchServiceException e) {
+            getLog().debug("Stopped watching");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Stops watching, so that {@link #execute()} returns. Default scope for test access.
+     */
+    void stop() {
+        final WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                getLog().debug("Error closing the watch service", e);
+            }
+        }
+    }
+
+    /**
+     * Default scope for test access.
+     *
+     * @param files     The files to watch.
+     * @param keyPrefix The prefix of the keys read from the files.
+     * @param debounce  The milliseconds to wait for further changes.
+     */
+    void configure(final File[] files, final String keyPrefix, final long debounce) {
+        this.files = files;
+        this.keyPrefix = keyPrefix;
+        this.debounce = debounce;
+    }
+
+    private void watch()
+            throws InterruptedException, MojoExecutionException {
+        while (true) {
+            final Set<File> changed = new LinkedHashSet<File>();
+            collect(watchService.take(), changed);
+
+            // wait for the file system to settle
+            WatchKey next;
+            while ((next = watchService.poll(debounce, TimeUnit.MILLISECONDS)) != null) {
+                collect(next, changed);
+            }
+
+            if (!changed.isEmpty()) {
+                regenerate(changed);
+            }
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<File> changed) {
+        final Path directory = (Path) key.watchable();
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(fileProperties.keySet());
+                continue;
+            }
+
+            final File file = directory.resolve((Path) event.context()).toFile();
+            if (fileProperties.containsKey(file)) {
+                changed.add(file);
+            }
+        }
+        key.reset();
+    }
+
+    private void regenerate(final Set<File> changed)
+            throws MojoExecutionException {
+        final long start = System.nanoTime();
+
+        final Set<String> changedKeys = new HashSet<String>();
+        for (final File file : changed) {
+            final Properties previous = fileProperties.get(file);
+            final Properties current;
+            try {
+                current = parse(file);
+            } catch (MojoExecutionException e) {
+                getLog().error("Keeping the previous content of " + file + ": " + e.getMessage());
+                continue;
+            }
+
+            for (final String key : previous.stringPropertyNames()) {
+                if (!previous.getProperty(key).equals(current.getProperty(key))) {
+                    changedKeys.add(key);
+                }
+            }
+            for (final String key : current.stringPropertyNames()) {
+                if (!previous.containsKey(key)) {
+                    changedKeys.add(key);
+                }
+            }
+            fileProperties.put(file, current);
+        }
+
+        if (changedKeys.isEmpty()) {
+            getLog().debug("No key changed in " + changed);
+            return;
+        }
+
+        merge(changedKeys);
+        final Set<String> affected = affectedBy(changedKeys);
+        try {
+            resolve(affected);
+        } catch (IllegalArgumentException e) {
+            getLog().error("Not rewriting " + getOutputFiles() + ": " + e.getMessage());
+            return;
+        }
+        writeProperties(resolved, getOutputFile());
+
+        getLog().info(String.format("Rewrote %s after changes to %s: %d key(s) resolved in %d ms", getOutputFiles(),
+                changed, affected.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * Updates the unresolved value of the given keys.
+     */
+    private void merge(final Set<String> keys) {
+        if (raw.isEmpty()) {
+            raw.putAll(base);
+            for (final Properties properties : fileProperties.values()) {
+                raw.putAll(properties);
+            }
+            return;
+        }
+
+        for (final String key : keys) {
+            String value = base.getProperty(key);
+            for (final Properties properties : fileProperties.values()) {
+                value = properties.getProperty(key, value);
+            }
+
+            if (value == null) {
+                raw.remove(key);
+            } else {
+                raw.setProperty(key, value);
+            }
+        }
+    }
+
+    /**
+     * Records the keys looked up to resolve a key, replacing those of its previous resolution. The keys are only
+     * known once resolved, as a placeholder can use a default or be built from other placeholders.
+     */
+    private void reference(final String key, final Set<String> referenced) {
+        final Set<String> previous = references.remove(key);
+        if (previous != null) {
+            for (final String referencedKey : previous) {
+                final Set<String> keys = dependents.get(referencedKey);
+                if (keys != null) {
+                    keys.remove(key);
+                }
+            }
+        }
+
+        if (referenced == null) {
+            return;
+        }
+        references.put(key, referenced);
+        for (final String referencedKey : referenced) {
+            Set<String> keys = dependents.get(referencedKey);
+            if (keys == null) {
+                keys = new HashSet<String>();
+                dependents.put(referencedKey, keys);
+            }
+            keys.add(key);
+        }
+    }
+
+    /**
+     * @return the changed keys and every key referencing them, directly or not
+     */
+    private Set<String> affectedBy(final Set<String> changedKeys) {
+        final Set<String> affected = new HashSet<String>(changedKeys);
+        final Deque<String> pending = new ArrayDeque<String>(changedKeys);
+        while (!pending.isEmpty()) {
+            final Set<String> keys = dependents.get(pending.pop());
+            if (keys != null) {
+                for (final String key : keys) {
+                    if (affected.add(key)) {
+                        pending.push(key);
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    private void resolve(final Set<String> keys) {
+        final PropertyResolver resolver = new PropertyResolver(
+                SystemPropertiesOverlay.forProject(getProject()).getIsolatedProperties(),
+                new ModelExpressionLookup(getProject(), session));
+        final Properties values = new Properties();
+        final Map<String, Set<String>> referenced = new HashMap<String, Set<String>>();
+        for (final String key : keys) {
+            if (raw.containsKey(key)) {
+                final Set<String> referencedKeys = new HashSet<String>();
+                values.setProperty(key, resolver.getPropertyValue(key, raw, environment(), referencedKeys));
+                referenced.put(key, referencedKeys);
+            }
+        }
+
+        // only applied once all of them resolved, so that a failure leaves the previous output consistent
+        for (final String key : keys) {
+            final String value = values.getProperty(key);
+            if (value == null) {
+                resolved.remove(key);
+            } else {
+                resolved.setProperty(key, value);
+            }
+            reference(key, referenced.get(key));
+        }
+    }
+
+    private Properties environment() {
+        if (environment == null) {
+            try {
+                environment = CommandLineUtils.getSystemEnvVars();
+            } catch (IOException e) {
+                getLog().warn("Cannot read the environment variables: " + e.getMessage());
+                environment = new Properties();
+            }
+        }
+        return environment;
+    }
+
+    /**
+     * @return the unresolved properties of the file, with {@link #keyPrefix}, empty when the file is missing
+     */
+    private Properties parse(final File file)
+            throws MojoExecutionException {
+        final Properties prefixed = new Properties();
+        if (!file.isFile()) {
+            getLog().warn("Properties file " + file + " not found, watching for its creation");
+            return prefixed;
+        }
+
+        final ResourceType resourceType = ResourceType.getByFileName(file.getName());
+        if (resourceType == null) {
+            throw new MojoExecutionException("Cannot find a resource type for " + file);
+        }
+
+        final Properties properties;
+        try {
+            InputStream stream = new BufferedInputStream(new FileInputStream(file));
+            try {
+                if (ResourceType.isCompressed(file.getName())) {
+                    stream = new GZIPInputStream(stream);
+                }
+                if (resourceType == ResourceType.YAML) {
+                    properties = YamlToPropertiesConverter.convertToProperties(stream);
+                } else {
+                    properties = PropertiesParser.load(stream);
+                }
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error reading properties from " + file, e);
+        } catch (RuntimeException e) {
+            // malformed YAML while the file is being edited
+            throw new MojoExecutionException("Error reading properties from " + file + ": " + e.getMessage(), e);
+        }
+
+        for (final String key : properties.stringPropertyNames()) {
+            prefixed.setProperty(keyPrefix != null ? keyPrefix + key : key, properties.getProperty(key));
+        }
+        return prefixed;
+    }
+}
@@ -77,6 +77,16 @@ public class WriteProjectProperties
 
         }
 
+        // system properties set for this project only take precedence over the JVM-wide ones
+        Properties isolatedProperties = SystemPropertiesOverlay.forProject(getProject()).getIsolatedProperties();
+        synchronized (isolatedProperties) {
+            for (String key : isolatedProperties.stringPropertyNames()) {
+                if (projProperties.get(key) != null) {
+                    projProperties.put(key, isolatedProperties.getProperty(key));
+                }
+            }
+        }
+
         writeProperties(projProperties, getOutputFile());
     }
 }
@@ -0,0 +1,163 @@
+package org.codehaus.mojo.properties;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fails when the conversion or resolution paths allocate more per key, or per placeholder, than the budget checked
+ * in as <code>allocation-budget.properties</code>. Allocation is measured per thread, on fixed corpora, after a
+ * warm-up so that the JIT has settled, keeping the lowest of several runs.
+ */
+public class AllocationBudgetTest {
+
+    private static final int KEYS = 5000;
+
+    private static final int RUNS = 5;
+
+    private static final int WARM_UP_RUNS = 5;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    private static Properties budget;
+
+    @BeforeClass
+    public static void setUpClass()
+            throws IOException {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        budget = new Properties();
+        final InputStream stream = AllocationBudgetTest.class.getResourceAsStream("/allocation-budget.properties");
+        try {
+            budget.load(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void yamlConversionStaysWithinBudget()
+            throws Exception {
+        final byte[] corpus = yamlCorpus();
+
+        final long allocated = measure(new Task() {
+            public void run()
+                    throws Exception {
+                YamlToPropertiesConverter.convertToProperties(new ByteArrayInputStream(corpus));
+            }
+        });
+
+        assertWithinBudget("yaml.bytesPerKey", allocated / KEYS);
+    }
+
+    @Test
+    public void propertiesParsingStaysWithinBudget()
+            throws Exception {
+        final byte[] corpus = propertiesCorpus();
+        final PropertiesParser.Sink sink = new PropertiesParser.Sink() {
+            public void property(final String key, final String value) {
+            }
+        };
+
+        final long allocated = measure(new Task() {
+            public void run()
+                    throws Exception {
+                PropertiesParser.parse(new ByteArrayInputStream(corpus), sink);
+            }
+        });
+
+        assertWithinBudget("properties.bytesPerKey", allocated / KEYS);
+    }
+
+    @Test
+    public void placeholderResolutionStaysWithinBudget()
+            throws Exception {
+        final Properties corpus = placeholderCorpus();
+        final PropertyResolver resolver = new PropertyResolver();
+
+        final long allocated = measure(new Task() {
+            public void run() {
+                for (int i = 0; i < KEYS; i++) {
+                    resolver.getPropertyValue("derived" + i, corpus, null);
+                }
+            }
+        });
+
+        // every derived key holds two placeholders
+        assertWithinBudget("resolver.bytesPerPlaceholder", allocated / (2L * KEYS));
+    }
+
+    private static long measure(final Task task)
+            throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            task.run();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            task.run();
+            lowest = Math.min(lowest, threadMXBean.getThreadAllocatedBytes(threadId) - before);
+        }
+        return lowest;
+    }
+
+    private static void assertWithinBudget(final String name, final long measured) {
+        final long allowed = Long.parseLong(budget.getProperty(name));
+        assertTrue(String.format("%s allocates %d bytes, over the budget of %d", name, measured, allowed),
+                measured <= allowed);
+    }
+
+    private static byte[] yamlCorpus()
+            throws IOException {
+        final StringBuilder yaml = new StringBuilder();
+        for (int section = 0; section < KEYS / 100; section++) {
+            yaml.append("section").append(section).append(":\n");
+            for (int group = 0; group < 10; group++) {
+                yaml.append("  group").append(group).append(":\n");
+                for (int key = 0; key < 10; key++) {
+                    yaml.append("    key").append(key).append(": value-").append(section).append('-')
+                            .append(group).append('-').append(key).append('\n');
+                }
+            }
+        }
+        return yaml.toString().getBytes("UTF-8");
+    }
+
+    private static byte[] propertiesCorpus()
+            throws IOException {
+        final StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < KEYS; i++) {
+            properties.append("section").append(i / 100).append(".group").append(i % 10).append(".key").append(i)
+                    .append(" = value-").append(i).append(i % 10 == 0 ? " \\\n    continued\n" : "\n");
+        }
+        return properties.toString().getBytes("ISO-8859-1");
+    }
+
+    private static Properties placeholderCorpus() {
+        final Properties properties = new Properties();
+        for (int i = 0; i < KEYS; i++) {
+            properties.setProperty("base" + i, "value-" + i);
+            properties.setProperty("derived" + i, "prefix-${base" + i + "}-middle-${base" + (KEYS - 1 - i) + "}");
+        }
+        return properties;
+    }
+
+    private interface Task {
+        void run()
+                throws Exception;
+    }
+}
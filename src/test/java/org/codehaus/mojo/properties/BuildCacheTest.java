@@ -0,0 +1,62 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BuildCacheTest {
+
+    private final BuildCache<List<String>> cache = new BuildCache<List<String>>() {
+        @Override
+        protected List<String> newValue() {
+            return new ArrayList<String>();
+        }
+    };
+
+    @Test
+    public void sessionsOfTheSameBuildShareTheValue() {
+        // Arrange
+        final Date startTime = new Date();
+
+        // Act
+        final List<String> first = cache.get(newSession(startTime));
+        final List<String> second = cache.get(newSession(startTime));
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    public void buildsStartedAtTheSameTimeDoNotShareTheValue() {
+        // Arrange
+        final Date startTime = new Date();
+
+        // Act
+        final List<String> first = cache.get(newSession(startTime));
+        final List<String> second = cache.get(newSession(new Date(startTime.getTime())));
+
+        // Assert
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void nothingIsKeptOutsideABuild() {
+        // Act
+        final List<String> value = cache.get(null);
+
+        // Assert
+        assertNull(value);
+    }
+
+    private static MavenSession newSession(final Date startTime) {
+        return new MavenSession(null, null, null, null, null, null, null, new Properties(), startTime);
+    }
+}
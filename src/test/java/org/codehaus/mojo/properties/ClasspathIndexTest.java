@@ -0,0 +1,151 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ClasspathIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void firstElementHoldingTheResourceWins()
+            throws Exception {
+        // Arrange
+        final File first = createJar("shared.properties", "origin=first");
+        final File second = createJar("shared.properties", "origin=second");
+        final File classes = folder.newFolder();
+
+        // Act
+        final ClasspathIndex index = ClasspathIndex.forClasspath(null,
+                Arrays.asList(classes.getPath(), first.getPath(), second.getPath()));
+
+        // Assert
+        assertEquals("first", load(index.find("shared.properties")).getProperty("origin"));
+        assertNull(index.find("absent.properties"));
+    }
+
+    @Test
+    public void directoryPrecedesLaterArchives()
+            throws Exception {
+        // Arrange
+        final File classes = folder.newFolder();
+        final File jar = createJar("config/app.properties", "origin=jar");
+        final ClasspathIndex index =
+                ClasspathIndex.forClasspath(null, Arrays.asList(classes.getPath(), jar.getPath()));
+        assertEquals("jar", load(index.find("config/app.properties")).getProperty("origin"));
+
+        // Act: directories are not indexed, a file written later is still found
+        FileUtils.writeStringToFile(new File(classes, "config/app.properties"), "origin=directory");
+
+        // Assert
+        assertEquals("directory", load(index.find("config/app.properties")).getProperty("origin"));
+    }
+
+    @Test
+    public void identicalClasspathsShareTheirIndex()
+            throws Exception {
+        final File jar = createJar("a.properties", "a=1");
+        final Date start = new Date();
+        final MavenSession session = newSession(start);
+        final MavenSession nextSession = newSession(new Date(start.getTime() + 1));
+
+        final ClasspathIndex index1 = ClasspathIndex.forClasspath(session, Arrays.asList(null, jar.getPath()));
+        final ClasspathIndex index2 = ClasspathIndex.forClasspath(session, Arrays.asList(jar.getPath()));
+
+        assertSame(index1, index2);
+        assertNotSame(index1, ClasspathIndex.forClasspath(nextSession, Arrays.asList(jar.getPath())));
+    }
+
+    @Test
+    public void archiveRebuiltDuringTheSessionIsReadAgain()
+            throws Exception {
+        // Arrange
+        final File jar = createJar("a.properties", "a=1");
+        final MavenSession session = newSession(new Date());
+        assertNull(ClasspathIndex.forClasspath(session, Arrays.asList(jar.getPath())).find("b.properties"));
+
+        // Act
+        writeJar(jar, "b.properties", "b=longer than before");
+        jar.setLastModified(jar.lastModified() + 2000);
+
+        // Assert
+        assertNotNull(ClasspathIndex.forClasspath(session, Arrays.asList(jar.getPath())).find("b.properties"));
+    }
+
+    @Test
+    public void pluginClassLoaderMissesAreKeptPerClassLoader()
+            throws Exception {
+        // Arrange
+        final File jar = createJar("plugin.properties", "a=1");
+        final ClasspathIndex index = ClasspathIndex.forClasspath(newSession(new Date()), Arrays.<String>asList());
+        final ClassLoader without = new URLClassLoader(new URL[0], null);
+        final ClassLoader with = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null);
+
+        // Act
+        final URL missing = index.findOnPluginClassLoader(without, "plugin.properties");
+        final URL found = index.findOnPluginClassLoader(with, "plugin.properties");
+
+        // Assert
+        assertNull(missing);
+        assertNotNull(found);
+    }
+
+    private MavenSession newSession(final Date startTime) {
+        return new MavenSession(null, null, null, null, null, null, folder.getRoot().getPath(), new Properties(),
+                startTime);
+    }
+
+    private File createJar(final String entry, final String content)
+            throws IOException {
+        final File jar = folder.newFile(UUID.randomUUID() + ".jar");
+        writeJar(jar, entry, content);
+        return jar;
+    }
+
+    private static void writeJar(final File jar, final String entry, final String content)
+            throws IOException {
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        out.putNextEntry(new ZipEntry(entry));
+        out.write(content.getBytes("UTF-8"));
+        out.closeEntry();
+        out.close();
+    }
+
+    private static Properties load(final URL url)
+            throws IOException {
+        final Properties properties = new Properties();
+        final URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        final InputStream stream = connection.getInputStream();
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,172 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.project.MavenProject;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the first execution of <code>read-project-properties</code> in a fresh JVM, as each module of a short build
+ * would, and checks the classes it loaded and its latency. The engines of the formats not being read, and the flight
+ * recorder when nothing records, must not be loaded at all, and the latency must stay within the budget checked in as
+ * <code>cold-start-budget.properties</code>.
+ * <p>
+ * The {@link #main(String...)} method is the execution run in the fresh JVM. Run by hand, it prints the latency of
+ * the first execution, which the failure messages also give.
+ */
+public class ColdStartTest {
+
+    /**
+     * A class logged by <code>-verbose:class</code>, as <code>[Loaded name from ...]</code> up to Java 8 and as
+     * <code>[0.045s][info][class,load] name source: ...</code>, decorators first, from Java 9.
+     */
+    private static final Pattern LOADED_CLASS = Pattern.compile(
+            "^(?:\\[Loaded|(?:\\[[^\\]\\r\\n]*\\])*\\[class,load\\s*\\]) ([\\w.$]+)", Pattern.MULTILINE);
+
+    private static final Pattern ELAPSED = Pattern.compile("^elapsed (\\d+)$", Pattern.MULTILINE);
+
+    private static Properties budget;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void loadBudget()
+            throws IOException {
+        budget = new Properties();
+        final InputStream stream = ColdStartTest.class.getResourceAsStream("/cold-start-budget.properties");
+        try {
+            budget.load(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void propertiesOnlyExecutionLoadsNeitherYamlNorRecorder()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile("cold.properties");
+        FileUtils.writeLines(file, Arrays.asList("a=1", "b=${a}", "c=${b}"));
+
+        // Act
+        final ColdStart coldStart = run(file);
+
+        // Assert
+        assertFalse(coldStart.toString(), coldStart.loadedPackage("org.yaml.snakeyaml"));
+        assertFalse(coldStart.toString(), coldStart.loadedPackage("org.codehaus.plexus.util.cli"));
+        assertFalse(coldStart.toString(), coldStart.loaded("org.codehaus.mojo.properties.FlightRecorderEvent"));
+        assertFalse(coldStart.toString(), coldStart.loaded(YamlToPropertiesConverter.class.getName()));
+        assertWithinBudget("properties.millis", coldStart);
+    }
+
+    @Test
+    public void yamlExecutionLoadsYaml()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile("cold.yml");
+        FileUtils.writeLines(file, Arrays.asList("a: 1", "b: ${a}"));
+
+        // Act
+        final ColdStart coldStart = run(file);
+
+        // Assert
+        assertTrue(coldStart.toString(), coldStart.loadedPackage("org.yaml.snakeyaml"));
+        assertFalse(coldStart.toString(), coldStart.loaded("org.codehaus.mojo.properties.FlightRecorderEvent"));
+        assertWithinBudget("yaml.millis", coldStart);
+    }
+
+    /**
+     * Reads the given sources once, printing the nanoseconds it took.
+     *
+     * @param sources the sources to read
+     * @throws Exception when the execution fails
+     */
+    public static void main(final String... sources)
+            throws Exception {
+        final long start = System.nanoTime();
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(new MavenProject());
+        mojo.setSources(sources);
+        mojo.execute();
+        System.out.println("elapsed " + (System.nanoTime() - start));
+    }
+
+    private static void assertWithinBudget(final String name, final ColdStart coldStart) {
+        final long allowed = Long.parseLong(budget.getProperty(name));
+        assertTrue(String.format(Locale.ROOT, "%s, over the %s budget of %d ms", coldStart, name, allowed),
+                coldStart.nanos <= allowed * 1000000L);
+    }
+
+    private static ColdStart run(final File file)
+            throws IOException, InterruptedException {
+        final String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        final Process process = new ProcessBuilder(java, "-verbose:class", "-cp",
+                System.getProperty("java.class.path"), ColdStartTest.class.getName(), file.getPath())
+                .redirectErrorStream(true).start();
+        final String output;
+        try {
+            output = IOUtils.toString(process.getInputStream(), "UTF-8");
+        } finally {
+            process.getInputStream().close();
+        }
+        assertEquals(output, 0, process.waitFor());
+
+        final Matcher elapsed = ELAPSED.matcher(output);
+        assertTrue(output, elapsed.find());
+        final ColdStart coldStart = new ColdStart(Long.parseLong(elapsed.group(1)));
+        final Matcher loaded = LOADED_CLASS.matcher(output);
+        while (loaded.find()) {
+            coldStart.classes.add(loaded.group(1));
+        }
+        assertFalse(output, coldStart.classes.isEmpty());
+
+        return coldStart;
+    }
+
+    private static final class ColdStart {
+        private final long nanos;
+
+        private final Set<String> classes = new HashSet<String>();
+
+        private ColdStart(final long nanos) {
+            this.nanos = nanos;
+        }
+
+        private boolean loaded(final String name) {
+            return classes.contains(name);
+        }
+
+        private boolean loadedPackage(final String name) {
+            for (final String loaded : classes) {
+                if (loaded.startsWith(name + '.')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "first execution in %.1f ms, %d classes loaded", nanos / 1e6,
+                    classes.size());
+        }
+    }
+}
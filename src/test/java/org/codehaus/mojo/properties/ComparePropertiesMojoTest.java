@@ -0,0 +1,137 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ComparePropertiesMojoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ComparePropertiesMojo mojo = new ComparePropertiesMojo();
+
+    @Test
+    public void textReportListsResolvedDifferencesInKeyOrder()
+            throws Exception {
+        // Arrange
+        final File output = new File(folder.getRoot(), "target/comparison.txt");
+        mojo.configure(output, "text", baseline(), production());
+
+        // Act
+        mojo.execute();
+
+        // Assert
+        final List<String> lines = FileUtils.readLines(output, "UTF-8");
+        assertEquals(Arrays.asList(
+                "# baseline: development",
+                "~ production db.host: localhost -> db.example.com",
+                "- production db.pool=5",
+                "~ production db.url: jdbc://localhost/app -> jdbc://db.example.com/app",
+                "+ production tls=enabled",
+                "# production: 1 added, 1 removed, 2 changed, 1 unchanged"), lines);
+    }
+
+    @Test
+    public void jsonReportHasDifferencesAndSummary()
+            throws Exception {
+        // Arrange
+        final File output = new File(folder.getRoot(), "comparison.json");
+        mojo.configure(output, "json", baseline(), production());
+
+        // Act
+        mojo.execute();
+
+        // Assert
+        final String json = FileUtils.readFileToString(output, "UTF-8");
+        assertTrue(json, json.startsWith("{\n  \"baseline\": \"development\",\n  \"differences\": ["));
+        assertTrue(json, json.contains("{\"set\": \"production\", \"key\": \"tls\", \"change\": \"added\", "
+                + "\"baseline\": null, \"value\": \"enabled\"}"));
+        assertTrue(json, json.contains("{\"set\": \"production\", \"added\": 1, \"removed\": 1, \"changed\": 2, "
+                + "\"unchanged\": 1}"));
+    }
+
+    @Test
+    public void resolvedSetsAreReleasedBeforeTheNextIsRead()
+            throws Exception {
+        // Arrange
+        final File output = new File(folder.newFolder("report"), "comparison.txt");
+        final List<WeakReference<PropertyTable>> resolved = new ArrayList<WeakReference<PropertyTable>>();
+        final int[] mostAlive = new int[1];
+        final ComparePropertiesMojo trackingMojo = new ComparePropertiesMojo() {
+            PropertyTable resolve(final PropertySet set)
+                    throws IOException {
+                mostAlive[0] = Math.max(mostAlive[0], alive(resolved) + 1);
+                final PropertyTable table = super.resolve(set);
+                resolved.add(new WeakReference<PropertyTable>(table));
+                return table;
+            }
+        };
+        final File staging = folder.newFile("staging.properties");
+        FileUtils.writeLines(staging, Arrays.asList("app=demo", "db.host=staging"));
+        trackingMojo.configure(output, "text", baseline(), production(), new PropertySet("staging", staging));
+
+        // Act
+        trackingMojo.execute();
+
+        // Assert
+        assertEquals(1, mostAlive[0]);
+        assertEquals(Arrays.asList(output.getName()), Arrays.asList(output.getParentFile().list()));
+        assertTrue(FileUtils.readLines(output, "UTF-8").contains("~ staging db.host: localhost -> staging"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void singleSetFails()
+            throws Exception {
+        mojo.configure(new File(folder.getRoot(), "comparison.txt"), "text", baseline());
+        mojo.execute();
+    }
+
+    /**
+     * @return the number of tables still reachable, after giving the garbage collector a few chances to clear them
+     */
+    private static int alive(final List<WeakReference<PropertyTable>> tables) {
+        int alive = 0;
+        for (int attempt = 0; attempt < 10; attempt++) {
+            alive = 0;
+            for (final WeakReference<PropertyTable> table : tables) {
+                if (table.get() != null) {
+                    alive++;
+                }
+            }
+            if (alive == 0) {
+                return 0;
+            }
+            System.gc();
+        }
+        return alive;
+    }
+
+    private PropertySet baseline()
+            throws Exception {
+        final File file = folder.newFile("development.properties");
+        FileUtils.writeLines(file, Arrays.asList("app=demo", "db.host=localhost", "db.url=jdbc://${db.host}/app",
+                "db.pool=5"));
+        return new PropertySet("development", file);
+    }
+
+    private PropertySet production()
+            throws Exception {
+        final File file = folder.newFile("production.yml");
+        FileUtils.writeLines(file, Arrays.asList("app: demo", "db:", "  host: db.example.com",
+                "  url: jdbc://${db.host}/app", "tls: enabled"));
+        return new PropertySet("production", file);
+    }
+}
@@ -0,0 +1,207 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Backs the <code>threadSafe = true</code> claim of the goals: hundreds of stub projects go through
+ * set-system-properties, read-project-properties and write-project-properties from many threads at once, and must
+ * end up with exactly the properties a sequential build produces. Throughput and time spent blocked on monitors are
+ * part of the assertion messages, to measure the contention of any shared state.
+ */
+public class ConcurrentMojoExecutionTest {
+
+    private static final int PROJECTS = 300;
+
+    private static final int THREADS = 16;
+
+    private final String globalName = "yaml.properties.stress." + UUID.randomUUID();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(globalName);
+    }
+
+    @Test
+    public void parallelExecutionMatchesSequentialExecution()
+            throws Exception {
+        // Arrange
+        final File shared = folder.newFile("shared.yml");
+        FileUtils.writeLines(shared, Arrays.asList(
+                "shared:",
+                "  name: reactor",
+                "  owner: ${module.id}",
+                "  list:",
+                "    - one",
+                "    - two"));
+
+        // Act
+        final Run sequential = run(shared, "sequential", 1, true);
+        final Run parallel = run(shared, "parallel", THREADS, true);
+
+        // Assert
+        assertEquals(parallel.measurements, PROJECTS, parallel.results.size());
+        for (int i = 0; i < PROJECTS; i++) {
+            assertEquals(parallel.measurements + ", project " + i, sequential.results.get(i), parallel.results.get(i));
+            assertEquals(parallel.measurements, String.valueOf(i), parallel.results.get(i).getProperty("shared.owner"));
+        }
+    }
+
+    @Test
+    public void parallelGlobalExecutionRestoresTheOriginalValue()
+            throws Exception {
+        // Arrange
+        final File shared = folder.newFile("shared.yml");
+        FileUtils.writeLines(shared, Arrays.asList(
+                "shared:",
+                "  owner: ${module.id}"));
+        System.setProperty(globalName, "original");
+
+        // Act
+        final Run parallel = run(shared, "global", THREADS, false);
+
+        // Assert
+        assertEquals(parallel.measurements, PROJECTS, parallel.results.size());
+        for (int i = 0; i < PROJECTS; i++) {
+            assertEquals(parallel.measurements, String.valueOf(i), parallel.results.get(i).getProperty("shared.owner"));
+        }
+        assertEquals(parallel.measurements, "original", System.getProperty(globalName));
+    }
+
+    private Run run(final File shared, final String name, final int threads, final boolean isolated)
+            throws Exception {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean.isThreadContentionMonitoringSupported()) {
+            threadMXBean.setThreadContentionMonitoringEnabled(true);
+        }
+
+        final AtomicLong blockedCount = new AtomicLong();
+        final AtomicLong blockedTime = new AtomicLong();
+        final File directory = folder.newFolder(name);
+
+        final List<Callable<Properties>> builds = new ArrayList<Callable<Properties>>(PROJECTS);
+        for (int i = 0; i < PROJECTS; i++) {
+            final int id = i;
+            builds.add(new Callable<Properties>() {
+                public Properties call()
+                        throws Exception {
+                    final ThreadInfo before = threadMXBean.getThreadInfo(Thread.currentThread().getId());
+                    final Properties result = build(id, shared, directory, isolated);
+                    final ThreadInfo after = threadMXBean.getThreadInfo(Thread.currentThread().getId());
+                    blockedCount.addAndGet(after.getBlockedCount() - before.getBlockedCount());
+                    blockedTime.addAndGet(after.getBlockedTime() - before.getBlockedTime());
+                    return result;
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<Properties>> futures = executor.invokeAll(builds);
+            final long elapsed = System.nanoTime() - start;
+
+            final List<Properties> results = new ArrayList<Properties>(PROJECTS);
+            for (final Future<Properties> future : futures) {
+                results.add(future.get());
+            }
+
+            return new Run(results, String.format(Locale.ROOT, "%s: %d projects on %d thread(s) in %d ms, "
+                            + "%.0f projects/s, blocked %d times for %d ms", name, PROJECTS, threads,
+                    elapsed / 1000000L, PROJECTS * 1e9 / elapsed, blockedCount.get(), blockedTime.get()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Properties build(final int id, final File shared, final File directory, final boolean isolated)
+            throws Exception {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.codehaus.mojo.properties.stress");
+        project.setArtifactId(directory.getName() + "-module-" + id);
+        project.setVersion("1.0");
+        project.getProperties().setProperty("module.id", "unresolved");
+
+        final File own = new File(directory, "module-" + id + ".properties");
+        FileUtils.writeLines(own, Arrays.asList(
+                "module.id=" + id,
+                "module.label=${shared.name}-${module.id}",
+                "module.user=${stress.user}"));
+
+        final Properties systemProperties = new Properties();
+        systemProperties.setProperty(isolated ? "stress.user" : globalName, "user-" + id);
+        final SetSystemPropertiesMojo setSystemProperties = new SetSystemPropertiesMojo();
+        setSystemProperties.configure(systemProperties, isolated, project);
+        setSystemProperties.execute();
+
+        final ReadPropertiesMojo read = new ReadPropertiesMojo();
+        read.setProject(project);
+        read.setSources(shared.getPath(), own.getPath());
+        read.execute();
+
+        final File output = new File(directory, "module-" + id + "-out.properties");
+        final WriteProjectProperties write = new WriteProjectProperties();
+        write.configure(project, output);
+        write.execute();
+
+        final RestoreSystemPropertiesMojo restore = new RestoreSystemPropertiesMojo();
+        restore.setProject(project);
+        restore.execute();
+
+        return load(output);
+    }
+
+    private static Properties load(final File file)
+            throws IOException {
+        final Properties properties = new Properties();
+        final InputStream stream = new FileInputStream(file);
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        return properties;
+    }
+
+    /**
+     * Outcome of the builds of all the projects.
+     */
+    private static final class Run {
+        private final List<Properties> results;
+
+        private final String measurements;
+
+        private Run(final List<Properties> results, final String measurements) {
+            this.results = results;
+            this.measurements = measurements;
+        }
+    }
+}
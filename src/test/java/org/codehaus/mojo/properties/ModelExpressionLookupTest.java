@@ -0,0 +1,49 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ModelExpressionLookupTest {
+
+    @Test
+    public void eachExpressionIsEvaluatedOnce() {
+        // Arrange
+        final MavenProject project = new MavenProject();
+        project.setArtifactId("demo");
+        project.setVersion("2.0");
+        final ModelExpressionLookup lookup = new ModelExpressionLookup(project, null);
+        final PropertyResolver resolver = new PropertyResolver(null, lookup);
+        final Properties properties = new Properties();
+        for (int i = 0; i < 100; i++) {
+            properties.setProperty("key" + i, "${project.artifactId}-${project.version}-${project.missing}");
+        }
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertEquals("demo-2.0-${project.missing}", resolver.getPropertyValue("key" + i, properties, null));
+        }
+
+        // Assert
+        assertEquals(3, lookup.getEvaluations());
+    }
+
+    @Test
+    public void onlyModelExpressionsAreEvaluated() {
+        // Arrange
+        final ModelExpressionLookup lookup = new ModelExpressionLookup(new MavenProject(), null);
+
+        // Act
+        final String other = lookup.lookup("other.version");
+        final String session = lookup.lookup("session.executionRootDirectory");
+
+        // Assert
+        assertNull(other);
+        assertNull(session);
+        assertEquals(0, lookup.getEvaluations());
+    }
+}
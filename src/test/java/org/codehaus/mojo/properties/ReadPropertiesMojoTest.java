@@ -1,8 +1,11 @@
 package org.codehaus.mojo.properties;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -10,19 +13,29 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ReadPropertiesMojoTest {
@@ -125,6 +138,368 @@ public class ReadPropertiesMojoTest {
         assertNotEquals(testPropertiesWithoutPrefix, projectProperties);
     }
 
+    @Test
+    public void readSourcesInDeclaredOrder()
+            throws Exception {
+        // Arrange
+        final File first = createFile(".properties", Arrays.asList("shared=first", "only.first=1"));
+        final File second = createFile(".yml", Arrays.asList("shared: second", "only:", "  second: 2"));
+        final File third = createFile(".properties", Arrays.asList("only.third=3"));
+        readPropertiesMojo.setSources(first.getAbsolutePath(), second.toURI().toURL().toString(),
+                third.getAbsolutePath());
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        final Properties projectProperties = projectStub.getProperties();
+        assertEquals(4, projectProperties.size());
+        assertEquals("second", projectProperties.getProperty("shared"));
+        assertEquals("1", projectProperties.getProperty("only.first"));
+        assertEquals("2", projectProperties.getProperty("only.second"));
+        assertEquals("3", projectProperties.getProperty("only.third"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void readSourcesRejectsFiles()
+            throws Exception {
+        final File file = getPropertyFileForTesting();
+        addFilesToReadPropertiesMojo(file);
+        readPropertiesMojo.setSources(file.getAbsolutePath());
+
+        readPropertiesMojo.execute();
+    }
+
+    @Test
+    public void readGzipCompressedYaml()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile(UUID.randomUUID() + ".yml.gz");
+        final OutputStream out = new GZIPOutputStream(new FileOutputStream(file));
+        out.write("test:\n  compressed: yes\n".getBytes("UTF-8"));
+        out.close();
+        addFilesToReadPropertiesMojo(file);
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("true", projectStub.getProperties().getProperty("test.compressed"));
+    }
+
+    @Test
+    public void readArchiveEntries()
+            throws Exception {
+        // Arrange
+        final File archive = folder.newFile(UUID.randomUUID() + ".jar");
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        out.putNextEntry(new ZipEntry("config/app.yml"));
+        out.write("app:\n  name: archived\n".getBytes("UTF-8"));
+        out.closeEntry();
+        out.putNextEntry(new ZipEntry("config/extra.properties.gz"));
+        final GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write("app.extra=zipped".getBytes("UTF-8"));
+        gzip.finish();
+        out.closeEntry();
+        out.close();
+
+        final String archiveUrl = "jar:" + archive.toURI() + "!/config/";
+        readPropertiesMojo.setSources(archiveUrl + "app.yml", archiveUrl + "extra.properties.gz");
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("archived", projectStub.getProperties().getProperty("app.name"));
+        assertEquals("zipped", projectStub.getProperties().getProperty("app.extra"));
+    }
+
+    @Test
+    public void missingArchiveEntryIsSkippedWhenQuiet()
+            throws Exception {
+        final File archive = folder.newFile(UUID.randomUUID() + ".zip");
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        out.putNextEntry(new ZipEntry("present.properties"));
+        out.closeEntry();
+        out.close();
+        readPropertiesMojo.setQuiet(true);
+        readPropertiesMojo.setSources("jar:" + archive.toURI() + "!/absent.properties");
+
+        readPropertiesMojo.execute();
+
+        assertEquals(0, projectStub.getProperties().size());
+    }
+
+    @Test
+    public void readClasspathResourceFromProjectDependencies()
+            throws Exception {
+        // Arrange
+        final File jar = folder.newFile(UUID.randomUUID() + ".jar");
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        out.putNextEntry(new ZipEntry("config/dependency.yml"));
+        out.write("from:\n  dependency: true\n".getBytes("UTF-8"));
+        out.closeEntry();
+        out.close();
+
+        projectStub = new MavenProject() {
+            public List getRuntimeClasspathElements() {
+                return Arrays.asList(jar.getPath());
+            }
+        };
+        readPropertiesMojo.setProject(projectStub);
+        readPropertiesMojo.setSources("classpath:/config/dependency.yml");
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("true", projectStub.getProperties().getProperty("from.dependency"));
+    }
+
+    @Test
+    public void readDirectoryInRelativePathOrder()
+            throws Exception {
+        // Arrange
+        final File directory = folder.newFolder("config");
+        new File(directory, "b/skipped").mkdirs();
+        FileUtils.writeLines(new File(directory, "a.yml"), Arrays.asList("app:", "  name: a", "  a: true"));
+        FileUtils.writeLines(new File(directory, "b/c.properties"), Arrays.asList("app.name=c"));
+        FileUtils.writeLines(new File(directory, "b/skipped/d.properties"), Arrays.asList("app.name=d"));
+        FileUtils.writeLines(new File(directory, "b/e.txt"), Arrays.asList("app.name=e"));
+        readPropertiesMojo.setDirectories(new SourceDirectory(directory, null, new String[]{"**/skipped/**"}));
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals(2, projectStub.getProperties().size());
+        assertEquals("c", projectStub.getProperties().getProperty("app.name"));
+        assertEquals("true", projectStub.getProperties().getProperty("app.a"));
+    }
+
+    @Test
+    public void readDirectoryThroughSymbolicLinks()
+            throws Exception {
+        // Arrange, laid out like a Kubernetes ConfigMap volume
+        final File directory = folder.newFolder("configmap");
+        final File version = new File(directory, "..2026_10_19");
+        version.mkdirs();
+        FileUtils.writeLines(new File(version, "app.properties"), Arrays.asList("app.name=linked"));
+        final Path data = new File(directory, "..data").toPath();
+        final Path link = new File(directory, "app.properties").toPath();
+        final Path loop = new File(version, "loop").toPath();
+        try {
+            Files.createSymbolicLink(data, version.toPath().getFileName());
+            Files.createSymbolicLink(link, Paths.get("..data", "app.properties"));
+            Files.createSymbolicLink(loop, Paths.get(".."));
+        } catch (UnsupportedOperationException e) {
+            Assume.assumeNoException(e);
+        } catch (IOException e) {
+            Assume.assumeNoException(e);
+        }
+        readPropertiesMojo.setDirectories(new SourceDirectory(directory, new String[]{"*.properties"}, null));
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("linked", projectStub.getProperties().getProperty("app.name"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void missingDirectoryFails()
+            throws Exception {
+        readPropertiesMojo.setDirectories(new SourceDirectory(new File(folder.getRoot(), "absent"), null, null));
+
+        readPropertiesMojo.execute();
+    }
+
+    @Test
+    public void sessionSnapshotIsCopiedWithoutReading()
+            throws Exception {
+        // Arrange
+        final MavenSession session = new MavenSession(null, null, null, null, null, null,
+                folder.getRoot().getPath(), new Properties(), new Date());
+        final File file = createFile(".properties", Arrays.asList("shared.url=${shared.host}/path",
+                "shared.host=http://example.com"));
+        addFilesToReadPropertiesMojo(file);
+        readPropertiesMojo.setSessionSnapshot(session, "shared");
+        readPropertiesMojo.execute();
+        assertTrue(file.delete());
+
+        final MavenProject child = new MavenProject();
+        child.getProperties().setProperty("child.key", "kept");
+        final ReadPropertiesMojo childMojo = new ReadPropertiesMojo();
+        childMojo.setProject(child);
+        childMojo.setSessionSnapshot(session, "shared");
+        final Field filesField = ReadPropertiesMojo.class.getDeclaredField("files");
+        filesField.setAccessible(true);
+        filesField.set(childMojo, new File[]{file});
+
+        // Act
+        childMojo.execute();
+
+        // Assert
+        assertEquals(3, child.getProperties().size());
+        assertEquals("http://example.com/path", child.getProperties().getProperty("shared.url"));
+        assertEquals("kept", child.getProperties().getProperty("child.key"));
+    }
+
+    @Test
+    public void keySelectionAppliesToPropertiesFiles()
+            throws Exception {
+        // Arrange
+        final File file = createFile(".properties", Arrays.asList("app.db.url=jdbc:h2:mem", "app.db.password=secret",
+                "app.name=demo", "other.key=value"));
+        addFilesToReadPropertiesMojo(file);
+        readPropertiesMojo.setKeySelection("app", new String[]{"db"}, new String[]{"db.password"});
+        readPropertiesMojo.setKeyPrefix("selected.");
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals(1, projectStub.getProperties().size());
+        assertEquals("jdbc:h2:mem", projectStub.getProperties().getProperty("selected.db.url"));
+    }
+
+    @Test
+    public void modelExpressionsAreResolved()
+            throws Exception {
+        // Arrange
+        projectStub.setVersion("1.2.3");
+        projectStub.getBuild().setDirectory("/work/target");
+        final File yaml = createFile(".yml", Arrays.asList("app:", "  version: ${project.version}",
+                "  jar: ${project.build.directory}/app-${project.version}.jar", "  other: ${project.unknown}"));
+        addFilesToReadPropertiesMojo(yaml);
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("1.2.3", projectStub.getProperties().getProperty("app.version"));
+        assertEquals("/work/target/app-1.2.3.jar", projectStub.getProperties().getProperty("app.jar"));
+        assertEquals("${project.unknown}", projectStub.getProperties().getProperty("app.other"));
+    }
+
+    @Test
+    public void schemaViolationsOfEveryFileAreListed()
+            throws Exception {
+        // Arrange
+        final File yaml = createFile(".yml", Arrays.asList("db:", "  port: abc", "  url: jdbc:h2:mem"));
+        final File properties = createFile(".properties", Arrays.asList("log.level=TRACE", "log.file=${db.url}"));
+        readPropertiesMojo.setSources(yaml.getPath(), properties.getPath());
+        readPropertiesMojo.setSchema(new PropertySchema(new String[]{"db.url", "db.user"}, null,
+                new PropertyRule("db.port", null, "integer"),
+                new PropertyRule("log.*", null, null, "INFO", "WARN")));
+
+        // Act
+        try {
+            readPropertiesMojo.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            // Assert
+            assertEquals("3 schema violation(s):"
+                    + "\n  db.port: 'abc' is not of type integer (File: " + yaml.getPath() + ")"
+                    + "\n  log.level: 'TRACE' is not one of [INFO, WARN] (File: " + properties.getPath() + ")"
+                    + "\n  db.user: is required but missing", e.getMessage());
+        }
+    }
+
+    @Test
+    public void valuesOverriddenByLaterSourcesMeetTheSchema()
+            throws Exception {
+        // Arrange
+        final File defaults = createFile(".yml", Arrays.asList("db:", "  port: none"));
+        final File overrides = createFile(".properties", Arrays.asList("db.port=5432"));
+        readPropertiesMojo.setSources(defaults.getPath(), overrides.getPath());
+        readPropertiesMojo.setSchema(new PropertySchema(new String[0], null,
+                new PropertyRule("db.port", null, "integer")));
+
+        // Act
+        readPropertiesMojo.execute();
+
+        // Assert
+        assertEquals("5432", projectStub.getProperties().getProperty("db.port"));
+    }
+
+    @Test
+    public void sessionSnapshotMeetsTheSchema()
+            throws Exception {
+        // Arrange
+        final MavenSession session = newSession(new Date());
+        addFilesToReadPropertiesMojo(createFile(".properties", Arrays.asList("log.level=TRACE")));
+        readPropertiesMojo.setSessionSnapshot(session, "shared");
+        readPropertiesMojo.execute();
+
+        final MavenProject child = new MavenProject();
+        final ReadPropertiesMojo childMojo = new ReadPropertiesMojo();
+        childMojo.setProject(child);
+        childMojo.setSessionSnapshot(session, "shared");
+        childMojo.setSchema(new PropertySchema(new String[]{"log.file"}, null,
+                new PropertyRule("log.level", null, null, "INFO", "WARN")));
+
+        // Act
+        try {
+            childMojo.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            // Assert
+            assertEquals("2 schema violation(s):"
+                    + "\n  log.level: 'TRACE' is not one of [INFO, WARN] (session snapshot 'shared')"
+                    + "\n  log.file: is required but missing", e.getMessage());
+        }
+    }
+
+    @Test
+    public void performanceReportIsWritten()
+            throws Exception {
+        // Arrange
+        final File yaml = createFile(".yml", Arrays.asList("a:", "  b: ${c}", "c: ${d}", "d: value",
+                "e: ${d}${d}${d}"));
+        addFilesToReadPropertiesMojo(yaml);
+        final File reportFile = new File(folder.getRoot(), "target/yaml-properties-report.json");
+        readPropertiesMojo.setPerformanceReportFile(reportFile);
+        readPropertiesMojo.setSessionSnapshot(newSession(new Date()), null);
+
+        // Act
+        readPropertiesMojo.execute();
+        readPropertiesMojo.execute();
+
+        // Assert
+        final String report = FileUtils.readFileToString(reportFile, "UTF-8");
+        assertTrue(report, report.startsWith("{\n  \"executions\": [\n    {\"mojo\": \"ReadPropertiesMojo\""));
+        assertTrue(report, report.contains("\"keys\": 4}"));
+        assertTrue(report, report.contains("\"bytesRead\": " + yaml.length()));
+        assertTrue(report, report.contains("\"maxNestingDepth\": 2"));
+        assertEquals("Both executions are reported", 2, report.split("\"mojo\"").length - 1);
+    }
+
+    @Test
+    public void performanceReportStartsOverInTheNextBuild()
+            throws Exception {
+        // Arrange
+        addFilesToReadPropertiesMojo(createFile(".yml", Arrays.asList("a: 1")));
+        final File reportFile = new File(folder.getRoot(), "target/yaml-properties-report.json");
+        readPropertiesMojo.setPerformanceReportFile(reportFile);
+        final Date start = new Date();
+        readPropertiesMojo.setSessionSnapshot(newSession(start), null);
+        readPropertiesMojo.execute();
+
+        // Act
+        readPropertiesMojo.setSessionSnapshot(newSession(new Date(start.getTime() + 1)), null);
+        readPropertiesMojo.execute();
+
+        // Assert
+        final String report = FileUtils.readFileToString(reportFile, "UTF-8");
+        assertEquals("Only the execution of the last build is reported", 1, report.split("\"mojo\"").length - 1);
+    }
+
+    private MavenSession newSession(final Date startTime) {
+        return new MavenSession(null, null, null, null, null, null, folder.getRoot().getPath(), new Properties(),
+                startTime);
+    }
+
     private Properties getProperties(final ResourceType resourceType, final File file)
             throws IOException, MojoExecutionException {
         final InputStream inputStream = new FileInputStream(file);
@@ -0,0 +1,140 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SetSystemPropertiesMojoTest {
+
+    private final String name = "yaml.properties.test." + UUID.randomUUID();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(name);
+    }
+
+    @Test
+    public void isolatedPropertiesAreOnlyVisibleToTheirProject()
+            throws Exception {
+        // Arrange
+        final MavenProject project = newProject("isolated");
+        final MavenProject otherProject = newProject("other");
+        project.getProperties().setProperty("resolved", "${" + name + "}");
+        otherProject.getProperties().setProperty("resolved", "${" + name + "}");
+
+        // Act
+        setSystemProperties(project, true, "isolated-value");
+        resolve(project);
+        resolve(otherProject);
+
+        // Assert
+        assertNull(System.getProperty(name));
+        assertEquals("isolated-value", project.getProperties().getProperty("resolved"));
+        assertEquals("${" + name + "}", otherProject.getProperties().getProperty("resolved"));
+    }
+
+    @Test
+    public void replacedSystemPropertiesAreRestored()
+            throws Exception {
+        // Arrange
+        System.setProperty(name, "original");
+        final MavenProject project = newProject("global");
+
+        // Act
+        setSystemProperties(project, false, "first");
+        setSystemProperties(project, false, "second");
+        assertEquals("second", System.getProperty(name));
+        restore(project);
+
+        // Assert
+        assertEquals("original", System.getProperty(name));
+    }
+
+    @Test
+    public void absentSystemPropertiesAreClearedOnRestore()
+            throws Exception {
+        final MavenProject project = newProject("absent");
+
+        setSystemProperties(project, false, "value");
+        restore(project);
+
+        assertNull(System.getProperty(name));
+    }
+
+    @Test
+    public void projectsSettingTheSameSystemPropertyRestoreTheOriginalValue()
+            throws Exception {
+        // Arrange
+        System.setProperty(name, "original");
+        final MavenProject first = newProject("first");
+        final MavenProject second = newProject("second");
+
+        // Act
+        setSystemProperties(first, false, "first-value");
+        setSystemProperties(second, false, "second-value");
+        restore(first);
+        final String afterFirst = System.getProperty(name);
+        restore(second);
+
+        // Assert
+        assertEquals("second-value", afterFirst);
+        assertEquals("original", System.getProperty(name));
+    }
+
+    @Test
+    public void restoringTheLastSetterPutsBackTheValueOfTheOtherProject()
+            throws Exception {
+        // Arrange
+        final MavenProject first = newProject("first");
+        final MavenProject second = newProject("second");
+
+        // Act
+        setSystemProperties(first, false, "first-value");
+        setSystemProperties(second, false, "second-value");
+        restore(second);
+        final String afterSecond = System.getProperty(name);
+        restore(first);
+
+        // Assert
+        assertEquals("first-value", afterSecond);
+        assertNull(System.getProperty(name));
+    }
+
+    private void setSystemProperties(final MavenProject project, final boolean isolated, final String value)
+            throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty(name, value);
+
+        final SetSystemPropertiesMojo mojo = new SetSystemPropertiesMojo();
+        mojo.configure(properties, isolated, project);
+        mojo.execute();
+    }
+
+    private static void resolve(final MavenProject project)
+            throws Exception {
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(project);
+        mojo.execute();
+    }
+
+    private static void restore(final MavenProject project)
+            throws Exception {
+        final RestoreSystemPropertiesMojo mojo = new RestoreSystemPropertiesMojo();
+        mojo.setProject(project);
+        mojo.execute();
+    }
+
+    private static MavenProject newProject(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.codehaus.mojo.properties.test");
+        project.setArtifactId(artifactId + "-" + UUID.randomUUID());
+        project.setVersion("1.0");
+        return project;
+    }
+}
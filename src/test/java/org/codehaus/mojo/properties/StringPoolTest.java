@@ -0,0 +1,94 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class StringPoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void equalStringsShareTheFirstInstance() {
+        // Arrange
+        final StringPool pool = new StringPool(16, 4);
+        final StringPool.Usage usage = new StringPool.Usage();
+        final String first = new String("shared.key");
+        final String second = new String("shared.key");
+
+        // Act
+        final String canonical = pool.intern(first, usage);
+        final String duplicate = pool.intern(second, usage);
+
+        // Assert
+        assertSame(first, canonical);
+        assertSame(first, duplicate);
+        assertEquals(1, usage.getHits());
+        assertEquals(40 + 2 * "shared.key".length(), usage.getBytesSaved());
+    }
+
+    @Test
+    public void fullSegmentsAreEmptied() {
+        // Arrange
+        final StringPool pool = new StringPool(1, 1);
+        final StringPool.Usage usage = new StringPool.Usage();
+        final String first = new String("first");
+        pool.intern(first, usage);
+
+        // Act
+        pool.intern("second", usage);
+
+        // Assert
+        assertNotSame(first, pool.intern(new String("first"), usage));
+        assertEquals(0, usage.getHits());
+    }
+
+    @Test
+    public void modulesReadingTheSameFileShareKeysAndValues()
+            throws Exception {
+        // Arrange
+        final File file = folder.newFile("shared.properties");
+        FileUtils.writeLines(file, Arrays.asList("pool.test.host=example.com", "pool.test.url=http://${pool.test.host}"));
+
+        // Act
+        final MavenProject first = read(file);
+        final MavenProject second = read(file);
+
+        // Assert
+        assertSame(first.getProperties().getProperty("pool.test.url"),
+                second.getProperties().getProperty("pool.test.url"));
+        assertSame(key(first, "pool.test.host"), key(second, "pool.test.host"));
+    }
+
+    private static MavenProject read(final File file)
+            throws Exception {
+        final MavenProject project = new MavenProject();
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(project);
+        final Field files = ReadPropertiesMojo.class.getDeclaredField("files");
+        files.setAccessible(true);
+        files.set(mojo, new File[]{file});
+        mojo.execute();
+        return project;
+    }
+
+    private static Object key(final MavenProject project, final String key) {
+        for (final Object candidate : project.getProperties().keySet()) {
+            if (key.equals(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
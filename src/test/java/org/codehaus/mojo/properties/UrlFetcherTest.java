@@ -0,0 +1,237 @@
+package org.codehaus.mojo.properties;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the fetcher against a local stub server that injects delays and failures.
+ */
+public class UrlFetcherTest {
+
+    private HttpServer server;
+
+    @Before
+    public void setUp()
+            throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void failedAttemptsAreRetried()
+            throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.createContext("/flaky.properties", new StubHandler("key=value", 0, 2, calls, null));
+
+        final byte[] content = newFetcher(1000, 2).fetch(url("/flaky.properties"));
+
+        assertEquals("key=value", new String(content, "UTF-8"));
+        assertEquals(3, calls.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void failureIsReportedOnceRetriesAreExhausted()
+            throws Exception {
+        server.createContext("/broken.properties", new StubHandler("key=value", 0, 5, new AtomicInteger(), null));
+
+        newFetcher(1000, 1).fetch(url("/broken.properties"));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void slowServerTimesOut()
+            throws Exception {
+        server.createContext("/slow.properties", new StubHandler("key=value", 2000, 0, new AtomicInteger(), null));
+
+        newFetcher(200, 0).fetch(url("/slow.properties"));
+    }
+
+    @Test
+    public void missingResourceIsNotRetried()
+            throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.createContext("/missing.properties", new HttpHandler() {
+            public void handle(final HttpExchange exchange)
+                    throws IOException {
+                calls.incrementAndGet();
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+
+        try {
+            newFetcher(1000, 3).fetch(url("/missing.properties"));
+        } catch (FileNotFoundException e) {
+            assertEquals(1, calls.get());
+            return;
+        }
+
+        throw new AssertionError("Expected FileNotFoundException");
+    }
+
+    @Test
+    public void configuredUrlsAreFetchedConcurrentlyAndMergedInOrder()
+            throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final String[] urls = new String[4];
+        for (int i = 0; i < urls.length; i++) {
+            final String path = "/part" + i + ".properties";
+            server.createContext(path, new StubHandler("shared=" + i + "\npart" + i + "=" + i, 300, 0,
+                    inFlight, maxInFlight));
+            urls[i] = url(path).toString();
+        }
+
+        final MavenProject project = new MavenProject();
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(project);
+        mojo.setSources(urls);
+
+        mojo.execute();
+
+        final Properties properties = project.getProperties();
+        assertEquals("3", properties.getProperty("shared"));
+        for (int i = 0; i < urls.length; i++) {
+            assertEquals(String.valueOf(i), properties.getProperty("part" + i));
+        }
+        assertTrue("Expected overlapping downloads, at most " + maxInFlight.get() + " were in flight",
+                maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void missingUrlIsSkippedWhenQuiet()
+            throws Exception {
+        // Arrange
+        server.createContext("/missing.properties", new HttpHandler() {
+            public void handle(final HttpExchange exchange)
+                    throws IOException {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        final MavenProject project = new MavenProject();
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(project);
+        mojo.setQuiet(true);
+        mojo.setSources(url("/missing.properties").toString());
+
+        // Act
+        mojo.execute();
+
+        // Assert
+        assertTrue(project.getProperties().isEmpty());
+    }
+
+    @Test
+    public void failedDownloadFailsEvenWhenQuiet()
+            throws Exception {
+        // Arrange
+        server.createContext("/broken.properties", new StubHandler("key=value", 0, 5, new AtomicInteger(), null));
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(new MavenProject());
+        mojo.setQuiet(true);
+        mojo.setSources(url("/broken.properties").toString());
+
+        // Act
+        try {
+            mojo.execute();
+        } catch (MojoExecutionException e) {
+            // Assert
+            assertTrue(e.getMessage(), e.getMessage().contains("could not be fetched"));
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+            return;
+        }
+
+        throw new AssertionError("Expected MojoExecutionException");
+    }
+
+    private UrlFetcher newFetcher(final int readTimeout, final int retries) {
+        return new UrlFetcher(1000, readTimeout, retries, 10, new SystemStreamLog());
+    }
+
+    private URL url(final String path)
+            throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    /**
+     * Answers with a fixed body after a delay, failing with a server error on the first calls.
+     */
+    private static class StubHandler
+            implements HttpHandler {
+        private final byte[] body;
+
+        private final long delay;
+
+        private final int failures;
+
+        private final AtomicInteger counter;
+
+        private final AtomicInteger maximum;
+
+        StubHandler(final String body, final long delay, final int failures, final AtomicInteger counter,
+                    final AtomicInteger maximum) {
+            this.body = body.getBytes();
+            this.delay = delay;
+            this.failures = failures;
+            this.counter = counter;
+            this.maximum = maximum;
+        }
+
+        public void handle(final HttpExchange exchange)
+                throws IOException {
+            final int current = counter.incrementAndGet();
+            try {
+                if (maximum != null) {
+                    synchronized (maximum) {
+                        maximum.set(Math.max(maximum.get(), current));
+                    }
+                }
+
+                Thread.sleep(delay);
+
+                if (maximum == null && current <= failures) {
+                    exchange.sendResponseHeaders(500, -1);
+                    return;
+                }
+
+                exchange.sendResponseHeaders(200, body.length);
+                final OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (maximum != null) {
+                    counter.decrementAndGet();
+                }
+                exchange.close();
+            }
+        }
+    }
+}
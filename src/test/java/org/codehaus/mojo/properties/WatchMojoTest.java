@@ -0,0 +1,109 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class WatchMojoTest {
+
+    private static final long TIMEOUT = 10000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void changedFileIsReadAgainAndDependentKeysResolved()
+            throws Exception {
+        // Arrange
+        final File yaml = folder.newFile("application.yml");
+        FileUtils.writeLines(yaml, Arrays.asList("db:", "  host: localhost", "  url: jdbc://${db.host}/${name}",
+                "  address: ${db.host}:${port:5432}"));
+        final File properties = folder.newFile("override.properties");
+        FileUtils.writeLines(properties, Arrays.asList("name=first", "obsolete=yes"));
+        final File output = new File(folder.getRoot(), "target/watched.properties");
+
+        final MavenProject project = new MavenProject();
+        project.getProperties().setProperty("project.key", "kept");
+        final WatchMojo mojo = new WatchMojo();
+        mojo.configure(project, output);
+        mojo.configure(new File[]{yaml, properties}, null, 50);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread watcher = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    mojo.execute();
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        watcher.start();
+
+        try {
+            awaitValue(output, "db.url", "jdbc://localhost/first");
+            assertEquals("localhost:5432", load(output).getProperty("db.address"));
+
+            // Act
+            Thread.sleep(200);
+            FileUtils.writeLines(properties, Arrays.asList("name=second", "port=6543"));
+            awaitValue(output, "db.url", "jdbc://localhost/second");
+
+            // Assert
+            final Properties written = load(output);
+            assertEquals("kept", written.getProperty("project.key"));
+            assertEquals("second", written.getProperty("name"));
+            assertEquals("localhost:6543", written.getProperty("db.address"));
+            assertNull(written.getProperty("obsolete"));
+        } finally {
+            mojo.stop();
+            watcher.join(TIMEOUT);
+        }
+
+        assertFalse(watcher.isAlive());
+        assertNull(failure.get());
+    }
+
+    private static void awaitValue(final File file, final String key, final String expected)
+            throws Exception {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        String actual = null;
+        while (System.currentTimeMillis() < deadline) {
+            if (file.isFile()) {
+                actual = load(file).getProperty(key);
+                if (expected.equals(actual)) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+        fail("Expected " + key + "=" + expected + " in " + file + " but was " + actual);
+    }
+
+    private static Properties load(final File file)
+            throws IOException {
+        final Properties properties = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,121 @@
+package org.codehaus.mojo.properties;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class WriteProjectPropertiesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final WriteProjectProperties mojo = new WriteProjectProperties();
+
+    @Test
+    public void partitionsHoldTheKeysBelowTheirPrefix()
+            throws Exception {
+        // Arrange
+        final MavenProject project = new MavenProject();
+        project.getProperties().setProperty("orders.url", "http://orders");
+        project.getProperties().setProperty("orders.eu.region", "eu-west");
+        project.getProperties().setProperty("ordersArchive.url", "http://archive");
+        project.getProperties().setProperty("orders", "top-level");
+        project.getProperties().setProperty("billing.currency", "EUR");
+        project.getProperties().setProperty("shared.name", "shop");
+        final File all = new File(folder.getRoot(), "all.properties");
+        final File orders = new File(folder.getRoot(), "services/orders.properties");
+        final File europe = new File(folder.getRoot(), "services/orders-eu.properties");
+        final File billing = new File(folder.getRoot(), "services/billing.properties");
+        mojo.configure(project, all);
+        mojo.setPartitions(new PropertyPartition("orders", orders, true),
+                new PropertyPartition("orders.eu.", europe, false),
+                new PropertyPartition("billing", billing, false));
+
+        // Act
+        mojo.execute();
+
+        // Assert
+        assertEquals(6, load(all).size());
+
+        final Properties orderProperties = load(orders);
+        assertEquals(2, orderProperties.size());
+        assertEquals("http://orders", orderProperties.getProperty("url"));
+        assertEquals("eu-west", orderProperties.getProperty("eu.region"));
+
+        final Properties europeProperties = load(europe);
+        assertEquals(1, europeProperties.size());
+        assertEquals("eu-west", europeProperties.getProperty("orders.eu.region"));
+
+        final Properties billingProperties = load(billing);
+        assertEquals(1, billingProperties.size());
+        assertEquals("EUR", billingProperties.getProperty("billing.currency"));
+    }
+
+    @Test
+    public void outputFileCanBeLeftOutWithPartitions()
+            throws Exception {
+        // Arrange
+        final MavenProject project = new MavenProject();
+        project.getProperties().setProperty("orders.url", "http://orders");
+        final File orders = new File(folder.getRoot(), "orders.properties");
+        mojo.configure(project, null);
+        mojo.setPartitions(new PropertyPartition("orders", orders, true));
+
+        // Act
+        mojo.execute();
+
+        // Assert
+        assertEquals("http://orders", load(orders).getProperty("url"));
+        assertFalse(new File(folder.getRoot(), "null").exists());
+    }
+
+    @Test
+    public void outputFilesAreThoseOfThePartitionsWithoutOutputFile() {
+        // Arrange
+        final File orders = new File(folder.getRoot(), "orders.properties");
+        final File billing = new File(folder.getRoot(), "billing.properties");
+        mojo.configure(new MavenProject(), null);
+        mojo.setPartitions(new PropertyPartition("orders", orders, true),
+                new PropertyPartition("billing", billing, false));
+
+        // Act
+        final List<File> outputFiles = mojo.getOutputFiles();
+
+        // Assert
+        assertEquals(Arrays.asList(orders, billing), outputFiles);
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void fileWrittenTwiceFails()
+            throws Exception {
+        final File file = new File(folder.getRoot(), "orders.properties");
+        mojo.configure(new MavenProject(), file);
+        mojo.setPartitions(new PropertyPartition("orders", file, true));
+        mojo.execute();
+    }
+
+    private static Properties load(final File file)
+            throws IOException {
+        final Properties properties = new Properties();
+        final InputStream stream = new FileInputStream(file);
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        return properties;
+    }
+}
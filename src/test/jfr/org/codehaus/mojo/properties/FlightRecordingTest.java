@@ -0,0 +1,71 @@
+package org.codehaus.mojo.properties;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecordingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void phasesAreRecorded()
+            throws Exception {
+        // Arrange
+        final File yaml = folder.newFile("recorded.yml");
+        FileUtils.writeLines(yaml, Arrays.asList("a:", "  b: ${c}", "c: value"));
+        final MavenProject project = new MavenProject();
+        final ReadPropertiesMojo mojo = new ReadPropertiesMojo();
+        mojo.setProject(project);
+        mojo.setSources(yaml.getPath());
+
+        final Recording recording = new Recording();
+        for (final String phase : Arrays.asList("Load", "Convert", "Resolve", "Write")) {
+            recording.enable("org.codehaus.mojo.properties." + phase).withThreshold(Duration.ZERO);
+        }
+
+        // Act
+        recording.start();
+        mojo.execute();
+        recording.stop();
+        final File dump = new File(folder.getRoot(), "recording.jfr");
+        recording.dump(dump.toPath());
+        recording.close();
+
+        // Assert
+        final Map<String, RecordedEvent> events = new HashMap<String, RecordedEvent>();
+        final List<RecordedEvent> recorded = RecordingFile.readAllEvents(dump.toPath());
+        for (final RecordedEvent event : recorded) {
+            events.put(event.getEventType().getName(), event);
+        }
+
+        final RecordedEvent load = events.get("org.codehaus.mojo.properties.Load");
+        assertNotNull(recorded.toString(), load);
+        assertTrue(load.getString("resource").endsWith("recorded.yml"));
+        assertEquals(yaml.length(), load.getLong("bytes"));
+        assertEquals(2, load.getLong("keys"));
+
+        final RecordedEvent convert = events.get("org.codehaus.mojo.properties.Convert");
+        assertNotNull(convert);
+        assertEquals(2, convert.getLong("keys"));
+
+        assertNotNull(events.get("org.codehaus.mojo.properties.Resolve"));
+    }
+}